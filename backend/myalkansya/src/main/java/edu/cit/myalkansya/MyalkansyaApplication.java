@@ -2,8 +2,10 @@ package edu.cit.myalkansya;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MyalkansyaApplication {
 
 	public static void main(String[] args) {
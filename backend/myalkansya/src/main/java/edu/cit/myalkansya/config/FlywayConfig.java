@@ -0,0 +1,16 @@
+package edu.cit.myalkansya.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfig {
+
+    // Databases created by Hibernate before migrations existed already match V1,
+    // so they are baselined there and only receive the later scripts
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema() {
+        return configuration -> configuration.baselineOnMigrate(true).baselineVersion("1");
+    }
+}
@@ -0,0 +1,24 @@
+package edu.cit.myalkansya.config;
+
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.MultipartConfigFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class MultipartConfig {
+
+    // Parts are spooled to disk rather than held in memory, and capped at the profile picture limit
+    @Bean
+    public MultipartConfigElement multipartConfigElement(
+            @Value("${profile-images.max-upload-bytes:5242880}") long maxUploadBytes) {
+        MultipartConfigFactory factory = new MultipartConfigFactory();
+        factory.setMaxFileSize(DataSize.ofBytes(maxUploadBytes));
+        // Leaves room for the other form fields and multipart boundaries
+        factory.setMaxRequestSize(DataSize.ofBytes(maxUploadBytes + 64 * 1024));
+        factory.setFileSizeThreshold(DataSize.ofBytes(0));
+        return factory.createMultipartConfig();
+    }
+}
@@ -2,21 +2,26 @@ package edu.cit.myalkansya.config;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
 
 import edu.cit.myalkansya.security.CustomOAuth2UserService;
+import edu.cit.myalkansya.security.JwtAuthenticationFilter;
 import edu.cit.myalkansya.security.OAuth2LoginSuccessHandler;
 
 @Configuration
@@ -24,10 +29,13 @@ public class SecurityConfig {
 
     private final CustomOAuth2UserService customOAuth2UserService;
     private final OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
-    public SecurityConfig(CustomOAuth2UserService customOAuth2UserService, OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler) {
+    public SecurityConfig(CustomOAuth2UserService customOAuth2UserService, OAuth2LoginSuccessHandler oAuth2LoginSuccessHandler,
+                          JwtAuthenticationFilter jwtAuthenticationFilter) {
         this.customOAuth2UserService = customOAuth2UserService;
         this.oAuth2LoginSuccessHandler = oAuth2LoginSuccessHandler;
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
     }
 
     @Bean
@@ -37,7 +45,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
             .requestMatchers("/", "/error", "/api/users/**", "/api/incomes/**", "/api/expenses/**", 
                             "/api/budgets/**", "/api/savings-goals/**", "/api/currency/**", 
-                            "/api/analytics/**", "/login", "/oauth2/**","/api/users/google","/api/users/facebook").permitAll()
+                            "/api/analytics/**", "/api/export/**", "/login", "/oauth2/**","/api/users/google","/api/users/facebook").permitAll()
                 .anyRequest().authenticated()
             )
             .oauth2Login(oauth -> oauth
@@ -50,15 +58,37 @@ public class SecurityConfig {
                 .logoutSuccessUrl("https://myalkansya.vercel.app/login") // Redirect to frontend after logout
                 .permitAll()
             )
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
             .csrf(csrf -> csrf.disable()); 
 
         return http.build();
     }
 
+    // The JWT filter runs inside the security chain only, not as a standalone servlet filter
     @Bean
-    public GoogleIdTokenVerifier googleIdTokenVerifier() {
-        return new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                .setAudience(List.of("275880440953-akhnvpmdmm4hiutcji6mcjtbap9cq7q1.apps.googleusercontent.com"))
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    // Google's signing certificates, cached until the max-age of the certs response and
+    // refreshed ahead of expiry by GooglePublicKeysRefreshJob. Shared by every ID token check.
+    @Bean
+    public GooglePublicKeysManager googlePublicKeysManager(
+            @Value("${google.oauth.certs-url:https://www.googleapis.com/oauth2/v1/certs}") String certsUrl) {
+        return new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(certsUrl)
+                .build();
+    }
+
+    // Accepts ID tokens issued to the web and Android clients
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager,
+            @Value("${google.oauth.client-ids:275880440953-akhnvpmdmm4hiutcji6mcjtbap9cq7q1.apps.googleusercontent.com,"
+                    + "275880440953-bghdgma37revndr2vepueat789feq9gtk.apps.googleusercontent.com}") String[] clientIds) {
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(List.of(clientIds))
                 .build();
     }
 
@@ -1,10 +1,10 @@
 package edu.cit.myalkansya.controller;
 
 import edu.cit.myalkansya.dto.CategorySummaryDTO;
+import edu.cit.myalkansya.dto.FinancialSummaryDTO;
 import edu.cit.myalkansya.dto.MonthlySummaryDTO;
 import edu.cit.myalkansya.service.AnalyticsService;
-import edu.cit.myalkansya.service.UserService;
-import edu.cit.myalkansya.security.JwtUtil; // Updated import to use your existing JwtUtil
+import edu.cit.myalkansya.security.CurrentUserId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,20 +19,11 @@ public class AnalyticsController {
 
     @Autowired
     private AnalyticsService analyticsService;
-    
-    @Autowired
-    private UserService userService;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
 
     @GetMapping("/monthly-summary")
     public ResponseEntity<List<MonthlySummaryDTO>> getMonthlySummary(
             @RequestParam(required = false) Integer year,
-            @RequestHeader("Authorization") String token) {
-        
-        String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-        int userId = userService.findByEmail(email).get().getUserId();
+            @CurrentUserId int userId) {
         
         // If year is not provided, use current year
         if (year == null) {
@@ -47,23 +38,17 @@ public class AnalyticsController {
     public ResponseEntity<List<CategorySummaryDTO>> getExpenseCategories(
             @RequestParam(required = false) Integer month,
             @RequestParam(required = false) Integer year,
-            @RequestHeader("Authorization") String token) {
-        
-        String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-        int userId = userService.findByEmail(email).get().getUserId();
+            @CurrentUserId int userId) {
         
         List<CategorySummaryDTO> categorySummary = analyticsService.getExpenseByCategory(userId, month, year);
         return ResponseEntity.ok(categorySummary);
     }
 
     @GetMapping("/financial-summary")
-    public ResponseEntity<?> getFinancialSummary(
+    public ResponseEntity<FinancialSummaryDTO> getFinancialSummary(
             @RequestParam(required = false) Integer month,
             @RequestParam(required = false) Integer year,
-            @RequestHeader("Authorization") String token) {
-        
-        String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-        int userId = userService.findByEmail(email).get().getUserId();
+            @CurrentUserId int userId) {
         
         // If month/year are not provided, use current month/year
         if (month == null) {
@@ -73,16 +58,13 @@ public class AnalyticsController {
             year = java.time.Year.now().getValue();
         }
         
-        Map<String, Object> financialSummary = analyticsService.getFinancialSummary(userId, month, year);
+        FinancialSummaryDTO financialSummary = analyticsService.getFinancialSummary(userId, month, year);
         return ResponseEntity.ok(financialSummary);
     }
 
     @GetMapping("/savings-goals-progress")
     public ResponseEntity<?> getSavingsGoalsProgress(
-            @RequestHeader("Authorization") String token) {
-        
-        String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-        int userId = userService.findByEmail(email).get().getUserId();
+            @CurrentUserId int userId) {
         
         List<Map<String, Object>> savingsGoalsProgress = analyticsService.getSavingsGoalsProgress(userId);
         return ResponseEntity.ok(savingsGoalsProgress);
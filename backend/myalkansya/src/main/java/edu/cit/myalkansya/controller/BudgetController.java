@@ -2,6 +2,7 @@ package edu.cit.myalkansya.controller;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,14 +14,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import edu.cit.myalkansya.dto.BudgetView;
 import edu.cit.myalkansya.entity.BudgetEntity;
-import edu.cit.myalkansya.security.JwtUtil;
+import edu.cit.myalkansya.security.CurrentUserId;
 import edu.cit.myalkansya.service.BudgetService;
-import edu.cit.myalkansya.service.UserService;
 
 @RestController
 @RequestMapping("/api/budgets")
@@ -30,19 +30,10 @@ public class BudgetController {
     @Autowired
     private BudgetService budgetService;
 
-    @Autowired
-    private UserService userService;
-
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @PostMapping("/create")
     public ResponseEntity<?> createBudget(@RequestBody BudgetEntity budget,
-                                         @RequestHeader("Authorization") String token) {
+                                         @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-
             // If month is not set, default to current month
             if (budget.getBudgetMonth() == 0) {
                 LocalDate now = LocalDate.now();
@@ -61,12 +52,9 @@ public class BudgetController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<?> getUserBudgets(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getUserBudgets(@CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<BudgetEntity> budgets = budgetService.getBudgetsByUserId(userId);
+            List<BudgetView> budgets = budgetService.getBudgetsByUserId(userId);
             return ResponseEntity.ok(budgets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -75,19 +63,15 @@ public class BudgetController {
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getBudgetById(@PathVariable int id,
-                                         @RequestHeader("Authorization") String token) {
+                                         @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            BudgetEntity budget = budgetService.getBudgetById(id);
-            
-            // Check if the budget belongs to the user
-            if (budget.getUser().getUserId() != userId) {
+            // Only returns a row if the budget belongs to the user
+            Optional<BudgetView> budget = budgetService.getBudgetView(id, userId);
+            if (budget.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You don't have permission to view this budget");
             }
             
-            return ResponseEntity.ok(budget);
+            return ResponseEntity.ok(budget.get());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -96,11 +80,8 @@ public class BudgetController {
     @PutMapping("/update/{id}")
     public ResponseEntity<?> updateBudget(@PathVariable int id, 
                                          @RequestBody BudgetEntity budget,
-                                         @RequestHeader("Authorization") String token) {
+                                         @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             // Ensure the budget ID is set for update
             budget.setId(id);
             
@@ -113,11 +94,8 @@ public class BudgetController {
 
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> deleteBudget(@PathVariable int id,
-                                         @RequestHeader("Authorization") String token) {
+                                         @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             budgetService.deleteBudget(id, userId);
             return ResponseEntity.ok("Budget deleted successfully");
         } catch (Exception e) {
@@ -130,12 +108,9 @@ public class BudgetController {
     public ResponseEntity<?> getBudgetsByMonth(
             @PathVariable int month, 
             @PathVariable int year,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<BudgetEntity> budgets = budgetService.getBudgetsByMonth(userId, month, year);
+            List<BudgetView> budgets = budgetService.getBudgetsByMonth(userId, month, year);
             return ResponseEntity.ok(budgets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -145,12 +120,9 @@ public class BudgetController {
     @GetMapping("/getBudgetsByMonth/{month}")
     public ResponseEntity<?> getBudgetsByMonthOnly(
             @PathVariable int month,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<BudgetEntity> budgets = budgetService.getBudgetsByMonth(userId, month);
+            List<BudgetView> budgets = budgetService.getBudgetsByMonth(userId, month);
             return ResponseEntity.ok(budgets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -158,13 +130,10 @@ public class BudgetController {
     }
     
     @GetMapping("/getCurrentMonthBudgets")
-    public ResponseEntity<?> getCurrentMonthBudgets(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getCurrentMonthBudgets(@CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             LocalDate now = LocalDate.now();
-            List<BudgetEntity> budgets = budgetService.getBudgetsByMonth(userId, now.getMonthValue(), now.getYear());
+            List<BudgetView> budgets = budgetService.getBudgetsByMonth(userId, now.getMonthValue(), now.getYear());
             return ResponseEntity.ok(budgets);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -105,8 +105,8 @@ public class CurrencyController {
             // Get current rates for all these currencies
             Map<String, Double> currentRates = exchangeRateService.getAllRatesForCurrency(baseCurrency);
             
-            // Get historical rates (7 days ago) if available, otherwise use slightly modified rates
-            Map<String, Double> historicalRates = exchangeRateService.getHistoricalRatesOrEstimate(baseCurrency);
+            // Stored rates from 7 days ago; empty until the snapshot job has collected that much history
+            Map<String, Double> historicalRates = exchangeRateService.getHistoricalRates(baseCurrency, 7);
             
             // Build response with rates and change percentages
             List<Map<String, Object>> result = new ArrayList<>();
@@ -120,7 +120,7 @@ public class CurrencyController {
                     
                     // Calculate percentage change
                     double currentRate = currentRates.get(code);
-                    double historicalRate = historicalRates.getOrDefault(code, currentRate * 0.98); // Fallback if no historical data
+                    double historicalRate = historicalRates.getOrDefault(code, currentRate); // No change without historical data
                     double changePercent = ((currentRate - historicalRate) / historicalRate) * 100;
                     
                     currencyData.put("changePercent", Math.round(changePercent * 100) / 100.0); // Round to 2 decimal places
@@ -1,16 +1,24 @@
 package edu.cit.myalkansya.controller;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import edu.cit.myalkansya.dto.CursorPageDTO;
+import edu.cit.myalkansya.dto.ImportResultDTO;
+import edu.cit.myalkansya.dto.ExpenseView;
 import edu.cit.myalkansya.entity.ExpenseEntity;
-import edu.cit.myalkansya.security.JwtUtil;
+import edu.cit.myalkansya.security.CurrentUserId;
 import edu.cit.myalkansya.service.ExpenseService;
-import edu.cit.myalkansya.service.UserService;
+import edu.cit.myalkansya.service.TransactionImportService;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -18,20 +26,14 @@ public class ExpenseController {
 
     @Autowired
     private ExpenseService expenseService;
-    
-    @Autowired
-    private UserService userService;
-    
+
     @Autowired
-    private JwtUtil jwtUtil;
+    private TransactionImportService transactionImportService;
 
     // CREATE
     @PostMapping("/postExpense")
-    public ResponseEntity<?> postExpense(@RequestBody ExpenseEntity expense, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> postExpense(@RequestBody ExpenseEntity expense, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             ExpenseEntity savedExpense = expenseService.createExpense(expense, userId);
             return ResponseEntity.ok(savedExpense);
         } catch (Exception e) {
@@ -39,32 +41,54 @@ public class ExpenseController {
         }
     }
 
+    // Bulk create from a CSV (with header row) or NDJSON body
+    @PostMapping(value = "/importExpenses", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importExpenses(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            InputStream body, @CurrentUserId int userId) {
+        try {
+            ImportResultDTO result = transactionImportService.importExpenses(userId, body, contentType);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     // READ
     @GetMapping("/getExpenses")
-    public ResponseEntity<?> getExpenses(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getExpenses(@CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<ExpenseEntity> expenses = expenseService.getExpensesByUserId(userId);
+            List<ExpenseView> expenses = expenseService.getExpensesByUserId(userId);
             return ResponseEntity.ok(expenses);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
+    @GetMapping("/getExpensesPage")
+    public ResponseEntity<?> getExpensesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String category,
+            @CurrentUserId int userId) {
+        try {
+            CursorPageDTO<ExpenseView> page = expenseService.getExpensesPage(userId, cursor, limit, from, to, category);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/getExpense/{expenseId}")
-    public ResponseEntity<?> getExpenseById(@PathVariable int expenseId, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getExpenseById(@PathVariable int expenseId, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            if (!expenseService.expenseExistsAndBelongsToUser(expenseId, userId)) {
+            Optional<ExpenseView> expense = expenseService.getExpenseView(expenseId, userId);
+            if (expense.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Expense not found or does not belong to user");
             }
             
-            ExpenseEntity expense = expenseService.getExpenseById(expenseId);
-            return ResponseEntity.ok(expense);
+            return ResponseEntity.ok(expense.get());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -73,12 +97,9 @@ public class ExpenseController {
     @GetMapping("/getExpensesByCategory/{category}")
     public ResponseEntity<?> getExpensesByCategory(
             @PathVariable String category,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<ExpenseEntity> expenses = expenseService.getExpensesByCategoryAndUserId(category, userId);
+            List<ExpenseView> expenses = expenseService.getExpensesByCategoryAndUserId(category, userId);
             return ResponseEntity.ok(expenses);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -86,9 +107,7 @@ public class ExpenseController {
     }
 
     @GetMapping("/getExpensesByGoal")
-    public List<ExpenseEntity> getExpensesByGoal(@RequestParam String goal, @RequestHeader("Authorization") String token) {
-        String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-        int userId = userService.findByEmail(email).get().getUserId();
+    public List<ExpenseView> getExpensesByGoal(@RequestParam String goal, @CurrentUserId int userId) {
         return expenseService.findByUserAndCategoryAndSubject(userId, "Savings Goal", goal);
     }
 
@@ -97,11 +116,8 @@ public class ExpenseController {
     public ResponseEntity<?> putExpense(
             @PathVariable int expenseId, 
             @RequestBody ExpenseEntity newExpenseDetails,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             ExpenseEntity updatedExpense = expenseService.updateExpense(expenseId, newExpenseDetails, userId);
             return ResponseEntity.ok(updatedExpense);
         } catch (Exception e) {
@@ -111,11 +127,8 @@ public class ExpenseController {
 
     // DELETE
     @DeleteMapping("/deleteExpense/{expenseId}")
-    public ResponseEntity<?> deleteExpense(@PathVariable int expenseId, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> deleteExpense(@PathVariable int expenseId, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             String result = expenseService.deleteExpense(expenseId, userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -1,16 +1,24 @@
 package edu.cit.myalkansya.controller;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import edu.cit.myalkansya.dto.CursorPageDTO;
+import edu.cit.myalkansya.dto.ImportResultDTO;
+import edu.cit.myalkansya.dto.IncomeView;
 import edu.cit.myalkansya.entity.IncomeEntity;
-import edu.cit.myalkansya.security.JwtUtil;
+import edu.cit.myalkansya.security.CurrentUserId;
 import edu.cit.myalkansya.service.IncomeService;
-import edu.cit.myalkansya.service.UserService;
+import edu.cit.myalkansya.service.TransactionImportService;
 
 @RestController
 @RequestMapping("/api/incomes")
@@ -18,20 +26,14 @@ public class IncomeController {
 
     @Autowired
     private IncomeService incomeService;
-    
-    @Autowired
-    private UserService userService;
-    
+
     @Autowired
-    private JwtUtil jwtUtil;
+    private TransactionImportService transactionImportService;
 
     // CREATE
     @PostMapping("/postIncome")
-    public ResponseEntity<?> postIncome(@RequestBody IncomeEntity income, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> postIncome(@RequestBody IncomeEntity income, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             IncomeEntity savedIncome = incomeService.createIncome(income, userId);
             return ResponseEntity.ok(savedIncome);
         } catch (Exception e) {
@@ -39,32 +41,54 @@ public class IncomeController {
         }
     }
 
+    // Bulk create from a CSV (with header row) or NDJSON body
+    @PostMapping(value = "/importIncomes", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importIncomes(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           InputStream body, @CurrentUserId int userId) {
+        try {
+            ImportResultDTO result = transactionImportService.importIncomes(userId, body, contentType);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     // READ
     @GetMapping("/getIncomes")
-    public ResponseEntity<?> getIncomes(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getIncomes(@CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<IncomeEntity> incomes = incomeService.getIncomesByUserId(userId);
+            List<IncomeView> incomes = incomeService.getIncomesByUserId(userId);
             return ResponseEntity.ok(incomes);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
+    @GetMapping("/getIncomesPage")
+    public ResponseEntity<?> getIncomesPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String source,
+            @CurrentUserId int userId) {
+        try {
+            CursorPageDTO<IncomeView> page = incomeService.getIncomesPage(userId, cursor, limit, from, to, source);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/getIncome/{incomeId}")
-    public ResponseEntity<?> getIncomeById(@PathVariable int incomeId, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getIncomeById(@PathVariable int incomeId, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            if (!incomeService.incomeExistsAndBelongsToUser(incomeId, userId)) {
+            Optional<IncomeView> income = incomeService.getIncomeView(incomeId, userId);
+            if (income.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Income not found or does not belong to user");
             }
             
-            IncomeEntity income = incomeService.getIncomeById(incomeId);
-            return ResponseEntity.ok(income);
+            return ResponseEntity.ok(income.get());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -75,11 +99,8 @@ public class IncomeController {
     public ResponseEntity<?> putIncome(
             @PathVariable int incomeId, 
             @RequestBody IncomeEntity newIncomeDetails,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             IncomeEntity updatedIncome = incomeService.updateIncome(incomeId, newIncomeDetails, userId);
             return ResponseEntity.ok(updatedIncome);
         } catch (Exception e) {
@@ -89,11 +110,8 @@ public class IncomeController {
 
     // DELETE
     @DeleteMapping("/deleteIncome/{incomeId}")
-    public ResponseEntity<?> deleteIncome(@PathVariable int incomeId, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> deleteIncome(@PathVariable int incomeId, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             String result = incomeService.deleteIncome(incomeId, userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -1,9 +1,9 @@
 package edu.cit.myalkansya.controller;
 
+import edu.cit.myalkansya.dto.SavingsGoalView;
 import edu.cit.myalkansya.entity.SavingsGoalEntity;
-import edu.cit.myalkansya.security.JwtUtil;
+import edu.cit.myalkansya.security.CurrentUserId;
 import edu.cit.myalkansya.service.SavingsGoalService;
-import edu.cit.myalkansya.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,20 +18,11 @@ public class SavingsGoalController {
 
     @Autowired
     private SavingsGoalService savingsGoalService;
-    
-    @Autowired
-    private UserService userService;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
 
     // CREATE
     @PostMapping("/postSavingsGoal")
-    public ResponseEntity<?> postSavingsGoal(@RequestBody SavingsGoalEntity savingsGoal, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> postSavingsGoal(@RequestBody SavingsGoalEntity savingsGoal, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             SavingsGoalEntity savedGoal = savingsGoalService.createSavingsGoal(savingsGoal, userId);
             return ResponseEntity.ok(savedGoal);
         } catch (Exception e) {
@@ -41,12 +32,9 @@ public class SavingsGoalController {
 
     // READ
     @GetMapping("/getSavingsGoals")
-    public ResponseEntity<?> getSavingsGoals(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getSavingsGoals(@CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            List<SavingsGoalEntity> goals = savingsGoalService.getSavingsGoalsByUserId(userId);
+            List<SavingsGoalView> goals = savingsGoalService.getSavingsGoalsByUserId(userId);
             return ResponseEntity.ok(goals);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -54,17 +42,14 @@ public class SavingsGoalController {
     }
 
     @GetMapping("/getSavingsGoal/{goalId}")
-    public ResponseEntity<?> getSavingsGoalById(@PathVariable int goalId, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getSavingsGoalById(@PathVariable int goalId, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
-            if (!savingsGoalService.savingsGoalExistsAndBelongsToUser(goalId, userId)) {
+            Optional<SavingsGoalView> goal = savingsGoalService.getSavingsGoalView(goalId, userId);
+            if (goal.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Savings goal not found or does not belong to user");
             }
             
-            Optional<SavingsGoalEntity> goal = savingsGoalService.getSavingsGoalById(goalId);
-            return ResponseEntity.ok(goal);
+            return ResponseEntity.ok(goal.get());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -72,11 +57,8 @@ public class SavingsGoalController {
 
     // UPDATE
     @PutMapping("/putSavingsGoal/{goalId}")
-    public ResponseEntity<?> putSavingsGoal(@PathVariable int goalId, @RequestBody SavingsGoalEntity updatedGoal, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> putSavingsGoal(@PathVariable int goalId, @RequestBody SavingsGoalEntity updatedGoal, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             SavingsGoalEntity updated = savingsGoalService.updateSavingsGoal(goalId, updatedGoal, userId);
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
@@ -86,11 +68,8 @@ public class SavingsGoalController {
 
     // DELETE
     @DeleteMapping("/deleteSavingsGoal/{goalId}")
-    public ResponseEntity<?> deleteSavingsGoal(@PathVariable int goalId, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> deleteSavingsGoal(@PathVariable int goalId, @CurrentUserId int userId) {
         try {
-            String email = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            int userId = userService.findByEmail(email).get().getUserId();
-            
             String result = savingsGoalService.deleteSavingsGoal(goalId, userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -6,32 +6,43 @@ import edu.cit.myalkansya.dto.LoginRequest;
 import edu.cit.myalkansya.dto.RegisterRequest;
 import edu.cit.myalkansya.dto.FacebookAuthRequest;
 import edu.cit.myalkansya.dto.FacebookUserDTO;
+import edu.cit.myalkansya.entity.CurrencyChangeJobEntity;
+import edu.cit.myalkansya.entity.ProfileImageRenditionEntity;
 import edu.cit.myalkansya.entity.UserEntity;
 import edu.cit.myalkansya.repository.UserRepository;
 import edu.cit.myalkansya.service.UserService;
 import edu.cit.myalkansya.security.JwtUtil;
 import edu.cit.myalkansya.security.GoogleTokenVerifier;
 import edu.cit.myalkansya.security.FacebookTokenVerifier;
-import edu.cit.myalkansya.service.CurrencyConversionService;
+import edu.cit.myalkansya.service.CurrencyChangeJobService;
+import edu.cit.myalkansya.security.CurrentUserId;
 import edu.cit.myalkansya.dto.ProfilePictureUploadDTO;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import edu.cit.myalkansya.dto.ProfilePictureResultDTO;
+import edu.cit.myalkansya.service.ProfileImageService;
+import edu.cit.myalkansya.storage.BlobStore;
+import edu.cit.myalkansya.storage.BlobTransfer;
+import edu.cit.myalkansya.storage.StoredBlob;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import edu.cit.myalkansya.dto.UserUpdateDTO;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Logger;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -61,7 +72,10 @@ public class UserController {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private CurrencyConversionService currencyConversionService; // Add this field
+    private CurrencyChangeJobService currencyChangeJobService;
+
+    @Autowired
+    private ProfileImageService profileImageService;
 
     @PostMapping("/register")
     public ResponseEntity<String> register(@RequestBody RegisterRequest request) {
@@ -124,6 +138,7 @@ public class UserController {
         responseMap.put("currency", user.getCurrency());
         responseMap.put("totalSavings", user.getTotalSavings());
         responseMap.put("profilePicture", user.getProfilePicture());
+        responseMap.put("profilePictureThumbnail", user.getProfilePictureThumbnail());
         responseMap.put("authProvider", user.getAuthProvider()); // Add this line
         responseMap.put("providerId", user.getProviderId()); // Add this line
         
@@ -402,8 +417,9 @@ public class UserController {
             if (updateData.containsKey("lastname")) user.setLastname((String) updateData.get("lastname"));
             // ... other fields
             
-            // Update the currency
-            if (updateData.containsKey("currency")) {
+            // Update the currency; a conversion writes it in its own transaction instead,
+            // so the currency never changes without the amounts
+            if (updateData.containsKey("currency") && !needsCurrencyConversion) {
                 user.setCurrency((String) updateData.get("currency"));
             }
             
@@ -411,12 +427,14 @@ public class UserController {
             
             // If currency has changed, convert all financial data
             if (needsCurrencyConversion) {
-                // Call the convertUserCurrency method on the instance, not statically
-                currencyConversionService.convertUserCurrency(
+                // Runs inline but still holds the user's conversion slot, so it cannot overlap a background job
+                currencyChangeJobService.runNow(
                     user.getUserId(), 
                     convertFromCurrency, 
                     convertToCurrency
                 );
+                // Pick up the converted balance written by the bulk updates
+                updatedUser = userRepository.findById(user.getUserId()).orElse(updatedUser);
             }
             
             return ResponseEntity.ok(updatedUser);
@@ -449,6 +467,24 @@ public class UserController {
         }
     }
     
+    // Streams the image part from its spooled temp file; responds once the thumbnails are stored, not yet pushed
+    @PostMapping(value = "/profilePicture", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadProfilePictureFile(@RequestParam("file") MultipartFile file,
+                                                      @CurrentUserId int userId) {
+        try {
+            ProfilePictureResultDTO result = userService.uploadProfilePicture(userId, file);
+            return ResponseEntity.ok(profilePictureResponse(userId, result));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred: " + e.getMessage());
+        }
+    }
+
+    // Base64 JSON upload kept for existing clients; prefer the multipart /profilePicture endpoint
     @PostMapping("/uploadProfilePicture")
     public ResponseEntity<?> uploadProfilePicture(@RequestBody ProfilePictureUploadDTO uploadDTO,
                                              @RequestHeader("Authorization") String token) {
@@ -458,101 +494,142 @@ public class UserController {
             // Decode base64 string to byte array
             byte[] imageBytes = Base64.getDecoder().decode(uploadDTO.getProfilePicture());
             
-            String base64Image = userService.uploadProfilePictureBase64(email, 
-                                                                  imageBytes, 
-                                                                  uploadDTO.getFileName(),
-                                                                  uploadDTO.getContentType());
+            ProfilePictureResultDTO result = userService.uploadProfilePictureBase64(email, imageBytes);
         
             UserEntity user = userService.findByEmail(email)
                 .orElseThrow(() -> new NoSuchElementException("User not found"));
                 
-            Map<String, Object> responseData = new HashMap<>();
-            responseData.put("message", "Profile picture uploaded successfully");
-            responseData.put("profilePicture", "data:" + uploadDTO.getContentType() + ";base64," + base64Image);
-            responseData.put("userId", user.getUserId());
-                
-            return ResponseEntity.ok(responseData);
+            return ResponseEntity.ok(profilePictureResponse(user.getUserId(), result));
         } catch (NoSuchElementException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("An unexpected error occurred: " + e.getMessage());
         }
     }
+
+    private Map<String, Object> profilePictureResponse(int userId, ProfilePictureResultDTO result) {
+        Map<String, Object> responseData = new HashMap<>();
+        responseData.put("message", "Profile picture uploaded successfully");
+        responseData.put("profilePicture", result.getProfilePicture());
+        responseData.put("profilePictureThumbnail", result.getProfilePictureThumbnail());
+        responseData.put("userId", userId);
+        return responseData;
+    }
     
     @GetMapping("/profile-pictures/{filename:.+}")
-    public ResponseEntity<?> serveProfilePicture(@PathVariable String filename) {
+    public void serveProfilePicture(@PathVariable String filename,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
         try {
-            Path filePath = Paths.get("user-profile-pictures").resolve(filename).normalize();
-            logger.info("Attempting to serve profile picture from: " + filePath.toAbsolutePath());
-            
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists()) {
-                // Determine content type
-                String contentType = determineContentType(filename);
-                
-                return ResponseEntity.ok()
-                        .header(HttpHeaders.CONTENT_TYPE, contentType)
-                        .header(HttpHeaders.CACHE_CONTROL, "no-cache, no-store, must-revalidate")
-                        .header(HttpHeaders.PRAGMA, "no-cache")
-                        .header(HttpHeaders.EXPIRES, "0")
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                logger.warning("Profile picture file not found: " + filePath.toAbsolutePath());
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("File not found");
+            Optional<ProfileImageRenditionEntity> rendition = profileImageService.findRendition(filename);
+            if (rendition.isPresent()) {
+                serveRendition(rendition.get(), request, response);
+                return;
             }
-        } catch (Exception e) {
+
+            Optional<StoredBlob> image = profileImageService.find(filename);
+            if (image.isEmpty()) {
+                logger.warning("Profile picture file not found: " + filename);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "File not found");
+                return;
+            }
+            StoredBlob blob = image.get();
+
+            // Older files can be overwritten in place, which always moves the modification time
+            String etag = "\"" + Long.toHexString(blob.getLastModified().toEpochMilli())
+                    + "-" + Long.toHexString(blob.getContentLength()) + "\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            // Sets ETag and Last-Modified, and answers If-None-Match / If-Modified-Since with 304
+            if (new ServletWebRequest(request, response).checkNotModified(etag, blob.getLastModified().toEpochMilli())) {
+                return;
+            }
+
+            response.setContentType(ProfileImageService.contentTypeOf(filename));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + blob.getKey() + "\"");
+            BlobTransfer.send(blob, null, etag, request, response);
+        } catch (IOException e) {
             logger.severe("Error serving profile picture: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Failed to serve profile picture: " + e.getMessage());
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                        "Failed to serve profile picture: " + e.getMessage());
+            }
         }
     }
 
-    private String determineContentType(String filename) {
-        if (filename.endsWith(".png")) return "image/png";
-        if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) return "image/jpeg";
-        if (filename.endsWith(".gif")) return "image/gif";
-        if (filename.endsWith(".svg")) return "image/svg+xml";
-        if (filename.endsWith(".webp")) return "image/webp";
-        return "application/octet-stream"; // Default
+    // Bytes while the rendition waits in the outbox, the CDN copy once it has been pushed.
+    // Content-hash names never change what they point at, so both answers are cached for good.
+    private void serveRendition(ProfileImageRenditionEntity rendition,
+                                HttpServletRequest request,
+                                HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        if (rendition.getContent() == null) {
+            response.sendRedirect(rendition.getCdnUrl());
+            return;
+        }
+        StoredBlob blob = new StoredBlob(rendition.getRenditionKey(), new ByteArrayResource(rendition.getContent()),
+                rendition.getContentLength(), rendition.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+        String etag = "\"" + BlobStore.contentHashOf(blob.getKey()) + "\"";
+        if (new ServletWebRequest(request, response).checkNotModified(etag, blob.getLastModified().toEpochMilli())) {
+            return;
+        }
+        response.setContentType(ProfileImageService.contentTypeOf(blob.getKey()));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + blob.getKey() + "\"");
+        BlobTransfer.send(blob, rendition.getContent(), etag, request, response);
     }
 
+    // Starts the conversion in the background; poll currencyChangeJobs/{jobId} for progress
     @PostMapping("/changeCurrency")
-    public ResponseEntity<?> changeCurrency(@RequestHeader("Authorization") String token,
+    public ResponseEntity<?> changeCurrency(@CurrentUserId int userId,
                                             @RequestBody ChangeCurrencyRequest request) {
         try {
-            // Extract user ID from token
-            String username = jwtUtil.extractEmail(token.replace("Bearer ", ""));
-            UserEntity user = userRepository.findByEmail(username)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            // Perform the currency conversion
-            currencyConversionService.convertUserCurrency(
-                user.getUserId(), 
+            CurrencyChangeJobEntity job = currencyChangeJobService.submit(
+                userId, 
                 request.getOldCurrency(), 
                 request.getNewCurrency()
             );
-            
-            // Save new currency preference to user
-            user.setCurrency(request.getNewCurrency());
-            UserEntity updatedUser = userRepository.save(user);
-            
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("error", e.getMessage());
+            currencyChangeJobService.getActiveJob(userId).ifPresent(active -> body.put("job", active));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("error", "Too many currency changes in progress, please try again shortly"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
+    @GetMapping("/currencyChangeJobs/{jobId}")
+    public ResponseEntity<?> getCurrencyChangeJob(@PathVariable String jobId, @CurrentUserId int userId) {
+        Optional<CurrencyChangeJobEntity> job = currencyChangeJobService.getJob(jobId, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Currency change job not found"));
+        }
+        return ResponseEntity.ok(job.get());
+    }
+
+    @GetMapping("/currencyChangeJobs/active")
+    public ResponseEntity<?> getActiveCurrencyChangeJob(@CurrentUserId int userId) {
+        Optional<CurrencyChangeJobEntity> job = currencyChangeJobService.getActiveJob(userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(job.get());
+    }
+
     @GetMapping("/{userId}/profilePicture")
     public ResponseEntity<?> getProfilePicture(@PathVariable int userId) {
         try {
-            String base64Image = userService.getProfilePictureBase64(userId);
-            if (base64Image != null) {
+            String profilePictureUrl = userService.getProfilePictureUrl(userId);
+            if (profilePictureUrl != null && !profilePictureUrl.isEmpty()) {
                 Map<String, String> response = new HashMap<>();
-                response.put("profilePicture", base64Image);
+                response.put("profilePicture", profilePictureUrl);
                 return ResponseEntity.ok(response);
             } else {
                 return ResponseEntity.notFound().build();
@@ -564,4 +641,4 @@ public class UserController {
                     .body("Failed to retrieve profile picture: " + e.getMessage());
         }
     }
-}
+}
\ No newline at end of file
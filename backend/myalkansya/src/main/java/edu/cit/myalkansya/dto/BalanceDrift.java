@@ -0,0 +1,10 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Projection row for a user whose stored total savings disagrees with the sum of their ledger entries.
+ */
+public interface BalanceDrift {
+    Integer getUserId();
+    Double getTotalSavings();
+    Double getLedgerTotal();
+}
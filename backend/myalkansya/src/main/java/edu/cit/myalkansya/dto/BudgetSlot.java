@@ -0,0 +1,11 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Projection row identifying a budget by its category and month, used to build the per-user budget index.
+ */
+public interface BudgetSlot {
+    Integer getId();
+    String getCategory();
+    Integer getBudgetYear();
+    Integer getBudgetMonth();
+}
@@ -0,0 +1,14 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Flat budget row for list and detail responses; selected without loading the user or linked expenses.
+ */
+public interface BudgetView {
+    int getId();
+    String getCategory();
+    double getMonthlyBudget();
+    double getTotalSpent();
+    String getCurrency();
+    int getBudgetMonth();
+    int getBudgetYear();
+}
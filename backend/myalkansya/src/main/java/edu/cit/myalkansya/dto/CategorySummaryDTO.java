@@ -4,6 +4,15 @@ public class CategorySummaryDTO {
     private String category;
     private double amount;
     
+    public CategorySummaryDTO() {
+    }
+    
+    // Used by the JPQL constructor expressions in MonthlyRollupRepository
+    public CategorySummaryDTO(String category, Double amount) {
+        this.category = category;
+        this.amount = amount != null ? amount : 0.0;
+    }
+    
     public String getCategory() {
         return category;
     }
@@ -0,0 +1,9 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Projection row with the summed amount of one user's transactions in one currency.
+ */
+public interface CurrencyTotal {
+    String getCurrency();
+    Double getTotal();
+}
@@ -0,0 +1,15 @@
+package edu.cit.myalkansya.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Flat expense row for list and detail responses; selected without joining the user or budget.
+ */
+public interface ExpenseView extends TransactionView {
+    int getId();
+    String getSubject();
+    String getCategory();
+    LocalDate getDate();
+    double getAmount();
+    String getCurrency();
+}
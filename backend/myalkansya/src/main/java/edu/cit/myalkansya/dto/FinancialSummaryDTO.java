@@ -0,0 +1,95 @@
+package edu.cit.myalkansya.dto;
+
+public class FinancialSummaryDTO {
+    private double totalIncome;
+    private double totalExpenses;
+    private double totalBudget;
+    private double totalSavings;
+    private double netCashflow;
+    private double budgetUtilization;
+    private double savingsRate;
+    private String currency;
+
+    public FinancialSummaryDTO() {
+    }
+
+    public FinancialSummaryDTO(double totalIncome, double totalExpenses, double totalBudget,
+                               double totalSavings, String currency) {
+        this.totalIncome = totalIncome;
+        this.totalExpenses = totalExpenses;
+        this.totalBudget = totalBudget;
+        this.totalSavings = totalSavings;
+        this.currency = currency;
+
+        // Net cashflow (income - expenses)
+        this.netCashflow = totalIncome - totalExpenses;
+        // Budget utilization (expenses / budget)
+        this.budgetUtilization = totalBudget > 0 ? totalExpenses / totalBudget : 0.0;
+        // Savings rate (net cashflow / income)
+        this.savingsRate = totalIncome > 0 ? netCashflow / totalIncome : 0.0;
+    }
+
+    public double getTotalIncome() {
+        return totalIncome;
+    }
+
+    public void setTotalIncome(double totalIncome) {
+        this.totalIncome = totalIncome;
+    }
+
+    public double getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public void setTotalExpenses(double totalExpenses) {
+        this.totalExpenses = totalExpenses;
+    }
+
+    public double getTotalBudget() {
+        return totalBudget;
+    }
+
+    public void setTotalBudget(double totalBudget) {
+        this.totalBudget = totalBudget;
+    }
+
+    public double getTotalSavings() {
+        return totalSavings;
+    }
+
+    public void setTotalSavings(double totalSavings) {
+        this.totalSavings = totalSavings;
+    }
+
+    public double getNetCashflow() {
+        return netCashflow;
+    }
+
+    public void setNetCashflow(double netCashflow) {
+        this.netCashflow = netCashflow;
+    }
+
+    public double getBudgetUtilization() {
+        return budgetUtilization;
+    }
+
+    public void setBudgetUtilization(double budgetUtilization) {
+        this.budgetUtilization = budgetUtilization;
+    }
+
+    public double getSavingsRate() {
+        return savingsRate;
+    }
+
+    public void setSavingsRate(double savingsRate) {
+        this.savingsRate = savingsRate;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+}
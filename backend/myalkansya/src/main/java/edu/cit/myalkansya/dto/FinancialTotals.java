@@ -0,0 +1,12 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Projection row for the single-query financial summary in UserRepository.
+ */
+public interface FinancialTotals {
+    Double getTotalIncome();
+    Double getTotalExpenses();
+    Double getTotalBudget();
+    Double getTotalSavings();
+    String getCurrency();
+}
@@ -0,0 +1,28 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Outcome of a bulk transaction import.
+ */
+public class ImportResultDTO {
+    private int rowsImported;
+    private int batches;
+    private double totalAmount;
+
+    public ImportResultDTO(int rowsImported, int batches, double totalAmount) {
+        this.rowsImported = rowsImported;
+        this.batches = batches;
+        this.totalAmount = totalAmount;
+    }
+
+    public int getRowsImported() {
+        return rowsImported;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public double getTotalAmount() {
+        return totalAmount;
+    }
+}
@@ -0,0 +1,14 @@
+package edu.cit.myalkansya.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Flat income row for list and detail responses; selected without joining the user.
+ */
+public interface IncomeView extends TransactionView {
+    int getId();
+    String getSource();
+    LocalDate getDate();
+    double getAmount();
+    String getCurrency();
+}
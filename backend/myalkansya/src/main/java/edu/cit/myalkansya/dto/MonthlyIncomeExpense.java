@@ -0,0 +1,10 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * Projection row with the income and expense totals of one month.
+ */
+public interface MonthlyIncomeExpense {
+    Integer getMonthValue();
+    Double getIncome();
+    Double getExpenses();
+}
@@ -0,0 +1,22 @@
+package edu.cit.myalkansya.dto;
+
+/**
+ * URLs of the thumbnails stored for an uploaded profile picture.
+ */
+public class ProfilePictureResultDTO {
+    private String profilePicture;
+    private String profilePictureThumbnail;
+
+    public ProfilePictureResultDTO(String profilePicture, String profilePictureThumbnail) {
+        this.profilePicture = profilePicture;
+        this.profilePictureThumbnail = profilePictureThumbnail;
+    }
+
+    public String getProfilePicture() {
+        return profilePicture;
+    }
+
+    public String getProfilePictureThumbnail() {
+        return profilePictureThumbnail;
+    }
+}
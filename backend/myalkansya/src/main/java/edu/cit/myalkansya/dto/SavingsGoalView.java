@@ -0,0 +1,15 @@
+package edu.cit.myalkansya.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Flat savings goal row for list and detail responses; selected without joining the user.
+ */
+public interface SavingsGoalView {
+    int getId();
+    String getGoal();
+    double getTargetAmount();
+    double getCurrentAmount();
+    LocalDate getTargetDate();
+    String getCurrency();
+}
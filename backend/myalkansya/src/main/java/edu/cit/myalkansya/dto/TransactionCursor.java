@@ -0,0 +1,56 @@
+package edu.cit.myalkansya.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a (date DESC, id DESC) ordered transaction list, encoded as an
+ * opaque URL-safe string for clients. A null date is a position among the
+ * rows without a date, which come last.
+ */
+public class TransactionCursor {
+
+    // Upper bound of the MySQL DATE type
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // Sentinel that sorts after every stored row, used for the first page
+    public static final TransactionCursor START = new TransactionCursor(MAX_DATE, Integer.MAX_VALUE);
+
+    private final LocalDate date;
+    private final int id;
+
+    public TransactionCursor(LocalDate date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = (date != null ? date.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            String date = raw.substring(0, separator);
+            return new TransactionCursor(date.isEmpty() ? null : LocalDate.parse(date),
+                                         Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.cit.myalkansya.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Columns of a transaction view that its keyset position is made of, see {@link TransactionCursor}.
+ */
+public interface TransactionView {
+    int getId();
+    LocalDate getDate();
+}
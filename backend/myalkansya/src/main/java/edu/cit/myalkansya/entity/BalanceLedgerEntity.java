@@ -0,0 +1,95 @@
+package edu.cit.myalkansya.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of every change to a user's total savings. The sum of a
+ * user's entries is the balance the users.total_savings column must agree with.
+ */
+@Entity
+@Table(name = "balance_ledger", indexes = {
+    @Index(name = "idx_balance_ledger_user", columnList = "user_id")
+})
+public class BalanceLedgerEntity {
+
+    public enum EntryType {
+        OPENING,
+        INCOME,
+        INCOME_ADJUSTMENT,
+        INCOME_REVERSAL,
+        INCOME_IMPORT,
+        EXPENSE,
+        EXPENSE_ADJUSTMENT,
+        EXPENSE_REVERSAL,
+        EXPENSE_IMPORT,
+        CURRENCY_CHANGE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private int userId;
+
+    // Signed change in the user's currency at the time of the entry
+    @Column(nullable = false, updatable = false)
+    private double amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false, length = 32)
+    private EntryType entryType;
+
+    // Id of the income or expense behind the entry, if any
+    @Column(name = "reference_id", updatable = false)
+    private Integer referenceId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public BalanceLedgerEntity() {
+        super();
+    }
+
+    public BalanceLedgerEntity(int userId, double amount, EntryType entryType, Integer referenceId) {
+        this.userId = userId;
+        this.amount = amount;
+        this.entryType = entryType;
+        this.referenceId = referenceId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public EntryType getEntryType() {
+        return entryType;
+    }
+
+    public Integer getReferenceId() {
+        return referenceId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -5,6 +5,8 @@ import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.CascadeType;
@@ -12,13 +14,19 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "budgets")
+// totalSpent is changed by in-database increments; only changed columns are written on save
+@DynamicUpdate
+@Table(name = "budgets", indexes = {
+    @Index(name = "idx_budgets_user_year_month_category", columnList = "user_id, budget_year, budget_month, category"),
+    @Index(name = "idx_budgets_user_category", columnList = "user_id, category")
+})
 public class BudgetEntity {
 
     @Id
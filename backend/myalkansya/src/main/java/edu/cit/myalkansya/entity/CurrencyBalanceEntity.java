@@ -0,0 +1,55 @@
+package edu.cit.myalkansya.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Signed running total of a user's transactions in one currency: incomes add,
+ * expenses subtract. Maintained in the same transaction as the income/expense
+ * writes so balances in another currency need one rate per currency, not per row.
+ */
+@Entity
+@Table(name = "currency_balances", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_currency_balance_user_currency", columnNames = {"user_id", "currency"})
+})
+public class CurrencyBalanceEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    // Empty for transactions stored without a currency
+    @Column(nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "net_amount", nullable = false)
+    private double netAmount;
+
+    public CurrencyBalanceEntity() {
+        super();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public double getNetAmount() {
+        return netAmount;
+    }
+}
@@ -0,0 +1,126 @@
+package edu.cit.myalkansya.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of one currency change, polled by the client while the conversion
+ * runs. Kept in the database so any instance can report on a job, and so the
+ * one-active-job-per-user rule holds across instances (see V9).
+ */
+@Entity
+@Table(name = "currency_change_jobs")
+public class CurrencyChangeJobEntity {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @Column(name = "job_id", length = 36)
+    private String jobId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private int userId;
+
+    @Column(name = "from_currency", nullable = false, updatable = false, length = 16)
+    private String fromCurrency;
+
+    @Column(name = "to_currency", nullable = false, updatable = false, length = 16)
+    private String toCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "current_step", length = 64)
+    private String currentStep;
+
+    @Column(name = "completed_steps", nullable = false)
+    private int completedSteps;
+
+    @Column(name = "total_steps", nullable = false)
+    private int totalSteps;
+
+    @Column(length = 1024)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public CurrencyChangeJobEntity() {
+        super();
+    }
+
+    public CurrencyChangeJobEntity(String jobId, int userId, String fromCurrency, String toCurrency) {
+        this.jobId = jobId;
+        this.userId = userId;
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.status = Status.QUEUED;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public String getToCurrency() {
+        return toCurrency;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getCurrentStep() {
+        return currentStep;
+    }
+
+    public int getCompletedSteps() {
+        return completedSteps;
+    }
+
+    public int getTotalSteps() {
+        return totalSteps;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
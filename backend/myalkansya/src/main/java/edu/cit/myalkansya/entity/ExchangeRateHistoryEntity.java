@@ -0,0 +1,77 @@
+package edu.cit.myalkansya.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * One daily exchange rate table. The rates are packed as 8-byte doubles in the
+ * order of the comma-separated currency codes, see RateSnapshot.
+ */
+@Entity
+@Table(name = "exchange_rate_history", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rate_history_base_date", columnNames = {"base_currency", "rate_date"})
+})
+public class ExchangeRateHistoryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    @Column(name = "base_currency", nullable = false, length = 3)
+    private String baseCurrency;
+
+    @Column(name = "currency_codes", nullable = false, columnDefinition = "TEXT")
+    private String currencyCodes;
+
+    @Lob
+    @Column(name = "packed_rates", nullable = false, columnDefinition = "BLOB")
+    private byte[] packedRates;
+
+    public ExchangeRateHistoryEntity() {
+        super();
+    }
+
+    public ExchangeRateHistoryEntity(LocalDate rateDate, String baseCurrency) {
+        this.rateDate = rateDate;
+        this.baseCurrency = baseCurrency;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public LocalDate getRateDate() {
+        return rateDate;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public String getCurrencyCodes() {
+        return currencyCodes;
+    }
+
+    public void setCurrencyCodes(String currencyCodes) {
+        this.currencyCodes = currencyCodes;
+    }
+
+    public byte[] getPackedRates() {
+        return packedRates;
+    }
+
+    public void setPackedRates(byte[] packedRates) {
+        this.packedRates = packedRates;
+    }
+}
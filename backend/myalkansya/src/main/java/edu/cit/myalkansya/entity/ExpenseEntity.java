@@ -8,12 +8,17 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+    @Index(name = "idx_expenses_user_date_id", columnList = "user_id, date, id"),
+    @Index(name = "idx_expenses_user_category_date", columnList = "user_id, category, date"),
+    @Index(name = "idx_expenses_user_category_subject", columnList = "user_id, category, subject")
+})
 public class ExpenseEntity {
 
     @Id
@@ -0,0 +1,142 @@
+package edu.cit.myalkansya.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Pre-aggregated income and expense totals per user, month and category.
+ * Rows are maintained in the same transaction as the income/expense writes
+ * so analytics never has to scan the transaction tables.
+ */
+@Entity
+@Table(name = "monthly_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_rollup_user_month_kind_category",
+                      columnNames = {"user_id", "rollup_year", "rollup_month", "kind", "category"})
+})
+public class MonthlyRollupEntity {
+
+    // Incomes have no category, so each month has one INCOME row with an empty category
+    public enum Kind {
+        INCOME,
+        EXPENSE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Column(name = "rollup_year", nullable = false)
+    private int year;
+
+    @Column(name = "rollup_month", nullable = false)
+    private int month; // 1-12
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind;
+
+    @Column(nullable = false)
+    private String category;
+
+    @Column(name = "income_sum", nullable = false)
+    private double incomeSum;
+
+    @Column(name = "expense_sum", nullable = false)
+    private double expenseSum;
+
+    @Column(name = "income_count", nullable = false)
+    private int incomeCount;
+
+    @Column(name = "expense_count", nullable = false)
+    private int expenseCount;
+
+    public MonthlyRollupEntity() {
+        super();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public double getIncomeSum() {
+        return incomeSum;
+    }
+
+    public void setIncomeSum(double incomeSum) {
+        this.incomeSum = incomeSum;
+    }
+
+    public double getExpenseSum() {
+        return expenseSum;
+    }
+
+    public void setExpenseSum(double expenseSum) {
+        this.expenseSum = expenseSum;
+    }
+
+    public int getIncomeCount() {
+        return incomeCount;
+    }
+
+    public void setIncomeCount(int incomeCount) {
+        this.incomeCount = incomeCount;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(int expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
@@ -0,0 +1,85 @@
+package edu.cit.myalkansya.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A profile picture rendition in the Cloudinary outbox (see V10). The bytes
+ * are kept until the push succeeds, then only the CDN URL remains.
+ */
+@Entity
+@Table(name = "profile_image_renditions")
+public class ProfileImageRenditionEntity {
+
+    @Id
+    @Column(name = "rendition_key", length = 80)
+    private String renditionKey;
+
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] content;
+
+    @Column(name = "content_length", nullable = false)
+    private int contentLength;
+
+    @Column(name = "cdn_url", length = 1024)
+    private String cdnUrl;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "pushed_at")
+    private LocalDateTime pushedAt;
+
+    public ProfileImageRenditionEntity() {
+        super();
+    }
+
+    public String getRenditionKey() {
+        return renditionKey;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    public String getCdnUrl() {
+        return cdnUrl;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public LocalDateTime getPushedAt() {
+        return pushedAt;
+    }
+}
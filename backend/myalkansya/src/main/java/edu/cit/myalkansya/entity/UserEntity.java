@@ -4,12 +4,18 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Base64;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import org.hibernate.annotations.DynamicUpdate;
+
 @Entity
-@Table(name = "users") // optional, to avoid reserved word conflict
+// Only changed columns are written, so saving a loaded user never overwrites
+// total_savings, which is maintained by in-database increments
+@DynamicUpdate
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_provider_id", columnList = "provider_id")
+}) // optional, to avoid reserved word conflict
 public class UserEntity {
 
     @Id
@@ -32,9 +38,13 @@ public class UserEntity {
 
     private String providerId; // Google 'sub' ID
 
+    // Cloudinary or OAuth provider URL; older uploads use /api/users/profile-pictures/<file>
     @Column(length = 1024)
     private String profilePicture;
 
+    @Column(length = 1024)
+    private String profilePictureThumbnail;
+
     private double totalSavings = 0.0;
 
     private String currency = "PHP"; // Default currency
@@ -61,15 +71,6 @@ public class UserEntity {
     @JsonIgnoreProperties("user") // Prevents infinite recursion in JSON response
     private List<SavingsGoalEntity> savingsGoals = new ArrayList<>();
     
-    // Add this field to store the image bytes
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] profileImageData;
-
-    // Add a transient field to handle Base64 conversion for API responses
-    @Transient
-    private String profileImageBase64;
-
     // Getters and Setters
     public int getUserId() {
         return userId;
@@ -135,6 +136,14 @@ public class UserEntity {
         this.profilePicture = profilePicture;
     }
 
+    public String getProfilePictureThumbnail() {
+        return profilePictureThumbnail;
+    }
+
+    public void setProfilePictureThumbnail(String profilePictureThumbnail) {
+        this.profilePictureThumbnail = profilePictureThumbnail;
+    }
+
     public double getTotalSavings() {
         return totalSavings;
     }
@@ -256,28 +265,4 @@ public class UserEntity {
     public void setOriginalCurrency(String originalCurrency) {
         this.originalCurrency = originalCurrency;
     }
-
-    // Getters and setters for the new fields
-    public byte[] getProfileImageData() {
-        return profileImageData;
-    }
-
-    public void setProfileImageData(byte[] profileImageData) {
-        this.profileImageData = profileImageData;
-    }
-
-    public String getProfileImageBase64() {
-        if (profileImageData != null) {
-            return Base64.getEncoder().encodeToString(profileImageData);
-        }
-        return null;
-    }
-
-    public void setProfileImageBase64(String profileImageBase64) {
-        this.profileImageBase64 = profileImageBase64;
-        // You might want to automatically decode and set profileImageData here
-        if (profileImageBase64 != null && !profileImageBase64.isEmpty()) {
-            this.profileImageData = Base64.getDecoder().decode(profileImageBase64);
-        }
-    }
 }
\ No newline at end of file
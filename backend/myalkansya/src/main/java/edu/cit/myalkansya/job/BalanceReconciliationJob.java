@@ -0,0 +1,119 @@
+package edu.cit.myalkansya.job;
+
+import edu.cit.myalkansya.dto.BalanceDrift;
+import edu.cit.myalkansya.repository.BalanceLedgerRepository;
+import edu.cit.myalkansya.repository.UserRepository;
+import edu.cit.myalkansya.service.BalanceLedgerService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Nightly check that users.total_savings still equals the sum of each user's
+ * ledger entries. Users are split into id ranges that are checked in parallel,
+ * one set-based query per range. Drift is logged, and corrected towards the
+ * ledger only when repair is enabled. The cron fires on every instance; a
+ * job lease lets only one of them run the check.
+ */
+@Component
+public class BalanceReconciliationJob {
+
+    private static final Logger logger = Logger.getLogger(BalanceReconciliationJob.class.getName());
+    private static final double TOLERANCE = 0.005;
+    private static final String JOB_NAME = "balance-reconciliation";
+
+    private final BalanceLedgerService balanceLedgerService;
+    private final BalanceLedgerRepository balanceLedgerRepository;
+    private final UserRepository userRepository;
+    private final JobLeases jobLeases;
+    private final Duration leaseDuration;
+    private final int chunkSize;
+    private final int parallelism;
+    private final boolean repair;
+
+    public BalanceReconciliationJob(BalanceLedgerService balanceLedgerService,
+                                    BalanceLedgerRepository balanceLedgerRepository,
+                                    UserRepository userRepository,
+                                    JobLeases jobLeases,
+                                    @Value("${ledger.reconciliation.lease-minutes:60}") long leaseMinutes,
+                                    @Value("${ledger.reconciliation.chunk-size:500}") int chunkSize,
+                                    @Value("${ledger.reconciliation.parallelism:4}") int parallelism,
+                                    @Value("${ledger.reconciliation.repair:false}") boolean repair) {
+        this.balanceLedgerService = balanceLedgerService;
+        this.balanceLedgerRepository = balanceLedgerRepository;
+        this.userRepository = userRepository;
+        this.jobLeases = jobLeases;
+        this.leaseDuration = Duration.ofMinutes(leaseMinutes);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.repair = repair;
+    }
+
+    @Scheduled(cron = "${ledger.reconciliation.cron:0 30 2 * * *}")
+    public void reconcile() {
+        if (!jobLeases.tryAcquire(JOB_NAME, leaseDuration)) {
+            logger.fine("Balance reconciliation already running or run on another instance");
+            return;
+        }
+        List<Integer> userIds = userRepository.findAllUserIds();
+        AtomicInteger drifted = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism,
+                runnable -> new Thread(runnable, "balance-reconciliation-" + threadCount.incrementAndGet()));
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int start = 0; start < userIds.size(); start += chunkSize) {
+                // Ids are sorted, so each chunk is the contiguous range between its first and last id
+                int firstUserId = userIds.get(start);
+                int lastUserId = userIds.get(Math.min(start + chunkSize, userIds.size()) - 1);
+                chunks.add(executor.submit(() -> drifted.addAndGet(reconcileRange(firstUserId, lastUserId))));
+            }
+            for (Future<?> chunk : chunks) {
+                try {
+                    chunk.get();
+                } catch (ExecutionException e) {
+                    failedChunks.incrementAndGet();
+                    logger.log(Level.WARNING, "Balance reconciliation chunk failed", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warning("Balance reconciliation interrupted");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        logger.info("Balance reconciliation checked " + userIds.size() + " users: " + drifted.get()
+                + " drifted, " + failedChunks.get() + " failed chunks" + (repair ? ", drift repaired" : ""));
+    }
+
+    private int reconcileRange(int firstUserId, int lastUserId) {
+        List<BalanceDrift> drifts = balanceLedgerRepository.findDrift(firstUserId, lastUserId, TOLERANCE);
+        for (BalanceDrift drift : drifts) {
+            double difference = drift.getTotalSavings() - drift.getLedgerTotal();
+            logger.warning("Balance drift for user " + drift.getUserId() + ": stored " + drift.getTotalSavings()
+                    + ", ledger " + drift.getLedgerTotal() + ", difference " + difference);
+            if (repair) {
+                // Re-checked under the row lock, since the user may have written since the query
+                double correction = balanceLedgerService.correctDrift(drift.getUserId(), TOLERANCE);
+                if (correction == 0.0) {
+                    logger.info("Balance drift for user " + drift.getUserId() + " resolved before repair");
+                }
+            }
+        }
+        return drifts.size();
+    }
+}
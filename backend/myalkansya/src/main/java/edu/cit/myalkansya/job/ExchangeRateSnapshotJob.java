@@ -0,0 +1,54 @@
+package edu.cit.myalkansya.job;
+
+import edu.cit.myalkansya.service.ExchangeRateService;
+import edu.cit.myalkansya.service.RateHistoryService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores the day's exchange rate table in exchange_rate_history so trends are
+ * computed from real history. Also runs at startup to warm the recent-days
+ * buffer and to fill in today's table if the scheduled run was missed.
+ */
+@Component
+public class ExchangeRateSnapshotJob implements ApplicationRunner {
+
+    private static final Logger logger = Logger.getLogger(ExchangeRateSnapshotJob.class.getName());
+
+    private final ExchangeRateService exchangeRateService;
+    private final RateHistoryService rateHistoryService;
+
+    public ExchangeRateSnapshotJob(ExchangeRateService exchangeRateService,
+                                   RateHistoryService rateHistoryService) {
+        this.exchangeRateService = exchangeRateService;
+        this.rateHistoryService = rateHistoryService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LocalDate today = LocalDate.now();
+        try {
+            rateHistoryService.loadRecentDays(today);
+            if (!rateHistoryService.hasSnapshot(today)) {
+                snapshotToday();
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to prepare exchange rate history at startup", e);
+        }
+    }
+
+    @Scheduled(cron = "${currency.history.snapshot-cron:0 10 0 * * *}")
+    public void snapshotToday() {
+        try {
+            rateHistoryService.recordSnapshot(LocalDate.now(), exchangeRateService.getSnapshot());
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to store today's exchange rates", e);
+        }
+    }
+}
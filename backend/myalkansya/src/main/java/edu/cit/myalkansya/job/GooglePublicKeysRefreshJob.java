@@ -0,0 +1,50 @@
+package edu.cit.myalkansya.job;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.logging.Logger;
+
+/**
+ * Keeps Google's signing certificates warm. The keys manager only refetches
+ * once its copy is within a few minutes of the max-age Google sent, and does
+ * so on the thread verifying a sign-in; refreshing here first means sign-ins
+ * always find fresh keys. If a refresh fails the manager still refetches on
+ * demand.
+ */
+@Component
+public class GooglePublicKeysRefreshJob {
+
+    private static final Logger logger = Logger.getLogger(GooglePublicKeysRefreshJob.class.getName());
+
+    private final GooglePublicKeysManager publicKeysManager;
+    private final Duration refreshAhead;
+
+    public GooglePublicKeysRefreshJob(GooglePublicKeysManager publicKeysManager,
+                                      @Value("${google.oauth.keys-refresh-ahead-minutes:10}") long refreshAheadMinutes) {
+        this.publicKeysManager = publicKeysManager;
+        this.refreshAhead = Duration.ofMinutes(refreshAheadMinutes);
+    }
+
+    // Runs at startup, then checks every minute whether the cached keys are close to expiring
+    @Scheduled(fixedDelayString = "${google.oauth.keys-refresh-check-ms:60000}")
+    public void refreshIfExpiring() {
+        long remainingMillis = publicKeysManager.getExpirationTimeMilliseconds() - System.currentTimeMillis();
+        if (remainingMillis > refreshAhead.toMillis()) {
+            return;
+        }
+        try {
+            publicKeysManager.refresh();
+            logger.fine("Refreshed Google public keys, valid for "
+                    + Duration.ofMillis(publicKeysManager.getExpirationTimeMilliseconds() - System.currentTimeMillis()).toMinutes()
+                    + " minutes");
+        } catch (GeneralSecurityException | IOException e) {
+            logger.warning("Failed to refresh Google public keys: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package edu.cit.myalkansya.job;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Database leases for scheduled jobs. Every instance's scheduler fires the
+ * same cron, and only the instance that moves a job's lease forward runs it.
+ * Times come from the database clock, so instances never compare their own.
+ */
+@Component
+public class JobLeases {
+
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobLeases(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Take the lease on a job if no other run holds it. The lease is not
+     * released when the run finishes, so instances whose trigger fires a
+     * little later within {@code duration} skip the job rather than repeat it.
+     */
+    public boolean tryAcquire(String jobName, Duration duration) {
+        jdbcTemplate.update("INSERT IGNORE INTO job_leases (job_name, locked_until) VALUES (?, '1970-01-01')", jobName);
+        return jdbcTemplate.update(
+                "UPDATE job_leases SET locked_until = NOW(6) + INTERVAL ? SECOND, locked_by = ? " +
+                "WHERE job_name = ? AND locked_until <= NOW(6)",
+                duration.getSeconds(), INSTANCE_ID, jobName) == 1;
+    }
+}
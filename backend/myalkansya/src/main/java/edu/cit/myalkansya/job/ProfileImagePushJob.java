@@ -0,0 +1,96 @@
+package edu.cit.myalkansya.job;
+
+import edu.cit.myalkansya.entity.ProfileImageRenditionEntity;
+import edu.cit.myalkansya.repository.ProfileImageRenditionRepository;
+import edu.cit.myalkansya.repository.UserRepository;
+import edu.cit.myalkansya.service.CloudinaryService;
+import edu.cit.myalkansya.service.ProfileImageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes profile picture renditions from the profile_image_renditions outbox
+ * to Cloudinary, then points users at the CDN URL. A failed push is retried
+ * with exponential backoff. The schedule fires on every instance; a job lease
+ * lets one of them poll, and each row is claimed before its upload, so a
+ * batch that outlives the lease is not pushed twice. Uploads are named by
+ * content hash, so a push repeated after a crash overwrites the same image.
+ */
+@Component
+public class ProfileImagePushJob {
+
+    private static final Logger logger = Logger.getLogger(ProfileImagePushJob.class.getName());
+    private static final String JOB_NAME = "profile-image-push";
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final ProfileImageRenditionRepository renditionRepository;
+    private final UserRepository userRepository;
+    private final CloudinaryService cloudinaryService;
+    private final JobLeases jobLeases;
+    private final Duration leaseDuration;
+    private final int batchSize;
+    private final long claimSeconds;
+    private final long retryBaseSeconds;
+    private final long retryMaxSeconds;
+
+    public ProfileImagePushJob(ProfileImageRenditionRepository renditionRepository,
+                               UserRepository userRepository,
+                               CloudinaryService cloudinaryService,
+                               JobLeases jobLeases,
+                               @Value("${profile-images.push.lease-seconds:10}") long leaseSeconds,
+                               @Value("${profile-images.push.batch-size:20}") int batchSize,
+                               @Value("${profile-images.push.claim-seconds:120}") long claimSeconds,
+                               @Value("${profile-images.push.retry-base-seconds:30}") long retryBaseSeconds,
+                               @Value("${profile-images.push.retry-max-seconds:3600}") long retryMaxSeconds) {
+        this.renditionRepository = renditionRepository;
+        this.userRepository = userRepository;
+        this.cloudinaryService = cloudinaryService;
+        this.jobLeases = jobLeases;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.batchSize = batchSize;
+        this.claimSeconds = claimSeconds;
+        this.retryBaseSeconds = retryBaseSeconds;
+        this.retryMaxSeconds = retryMaxSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${profile-images.push.interval-ms:15000}")
+    public void pushPending() {
+        if (!jobLeases.tryAcquire(JOB_NAME, leaseDuration)) {
+            return;
+        }
+        List<String> keys = renditionRepository.findDueKeys(batchSize);
+        for (String key : keys) {
+            push(key);
+        }
+    }
+
+    private void push(String key) {
+        if (renditionRepository.claim(key, claimSeconds) == 0) {
+            // Pushed or claimed by another instance since the batch was read
+            return;
+        }
+        ProfileImageRenditionEntity rendition = renditionRepository.findById(key).orElse(null);
+        if (rendition == null || rendition.getContent() == null) {
+            return;
+        }
+        try {
+            String cdnUrl = cloudinaryService.uploadImage(rendition.getContent(), key);
+            renditionRepository.markPushed(key, cdnUrl);
+            userRepository.replaceProfilePictureUrl(ProfileImageService.URL_PREFIX + key, cdnUrl);
+        } catch (Exception e) {
+            int attempt = rendition.getAttempts() + 1;
+            long retrySeconds = Math.min(retryMaxSeconds, retryBaseSeconds << Math.min(attempt - 1, 16));
+            logger.log(Level.WARNING, "Profile picture push of " + key + " failed (attempt " + attempt
+                    + "), retrying in " + retrySeconds + "s", e);
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            renditionRepository.markAttemptFailed(key,
+                    error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, retrySeconds);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package edu.cit.myalkansya.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for money amounts. Amounts are still stored as doubles,
+ * but sums and conversions go through whole numbers of minor units (cents),
+ * so they never pick up binary rounding error. Rounding gives the same cents
+ * as the BigDecimal HALF_EVEN rounding it replaces, and only allocates for
+ * amounts within a hair of a half cent.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    private static final long MINOR_UNITS_PER_MAJOR = 100L;
+
+    // Below this the scaled double is within 2e-5 of the scaled decimal amount
+    private static final double FAST_PATH_LIMIT = 1e9;
+    private static final double HALF_CENT_MARGIN = 1e-4;
+
+    private Money() {
+    }
+
+    /**
+     * Nearest whole number of cents, rounding the amount's shortest decimal
+     * form half to even, as {@code BigDecimal.valueOf(amount).setScale(2,
+     * HALF_EVEN)} does. So 2.675, held as 2.67499999..., gives 268.
+     */
+    public static long toMinorUnits(double amount) {
+        double scaled = amount * MINOR_UNITS_PER_MAJOR;
+        double fraction = scaled - Math.floor(scaled);
+        // Clear of a half cent, the scaled double and the decimal amount round to the same cent
+        if (Math.abs(amount) < FAST_PATH_LIMIT && Math.abs(fraction - 0.5) > HALF_CENT_MARGIN) {
+            return Math.round(scaled);
+        }
+        return BigDecimal.valueOf(amount).setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static double toMajorUnits(long minorUnits) {
+        return (double) minorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+
+    // Cents at the given rate, ties to even
+    public static long convertMinorUnits(long minorUnits, double rate) {
+        return (long) Math.rint(minorUnits * rate);
+    }
+
+    // Convert a double amount at the given rate, rounding the product to cents once
+    public static double convert(double amount, double rate) {
+        return toMajorUnits(toMinorUnits(amount * rate));
+    }
+
+    // Round a double amount to cents, see toMinorUnits
+    public static double roundToCents(double amount) {
+        return toMajorUnits(toMinorUnits(amount));
+    }
+}
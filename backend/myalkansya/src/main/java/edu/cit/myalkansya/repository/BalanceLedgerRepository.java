@@ -0,0 +1,27 @@
+package edu.cit.myalkansya.repository;
+
+import edu.cit.myalkansya.dto.BalanceDrift;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BalanceLedgerRepository extends JpaRepository<BalanceLedgerEntity, Long> {
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM balance_ledger WHERE user_id = :userId", nativeQuery = true)
+    double sumByUserId(int userId);
+
+    // Users in an id range whose stored balance differs from their ledger sum by more than the tolerance
+    @Query(value = "SELECT u.user_id AS userId, u.total_savings AS totalSavings, COALESCE(l.total, 0) AS ledgerTotal " +
+                   "FROM users u LEFT JOIN (" +
+                   "  SELECT user_id, SUM(amount) AS total FROM balance_ledger " +
+                   "  WHERE user_id BETWEEN :firstUserId AND :lastUserId GROUP BY user_id" +
+                   ") l ON l.user_id = u.user_id " +
+                   "WHERE u.user_id BETWEEN :firstUserId AND :lastUserId " +
+                   "AND ABS(u.total_savings - COALESCE(l.total, 0)) > :tolerance",
+           nativeQuery = true)
+    List<BalanceDrift> findDrift(int firstUserId, int lastUserId, double tolerance);
+}
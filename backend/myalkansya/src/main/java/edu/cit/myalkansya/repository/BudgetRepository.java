@@ -4,8 +4,12 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import edu.cit.myalkansya.dto.BudgetSlot;
+import edu.cit.myalkansya.dto.BudgetView;
 import edu.cit.myalkansya.entity.BudgetEntity;
 import edu.cit.myalkansya.entity.UserEntity;
 
@@ -23,5 +27,59 @@ public interface BudgetRepository extends JpaRepository<BudgetEntity, Integer> {
     // Find if a budget already exists for this user, category, month, and year
     Optional<BudgetEntity> findByUserUserIdAndCategoryAndBudgetMonthAndBudgetYear(
             int userId, String category, int budgetMonth, int budgetYear);
-            
+
+    // Flat projections for read endpoints; selecting columns keeps the user and expenses unloaded
+    String VIEW_COLUMNS = "SELECT b.id AS id, b.category AS category, b.monthlyBudget AS monthlyBudget, " +
+                          "b.totalSpent AS totalSpent, b.currency AS currency, " +
+                          "b.budgetMonth AS budgetMonth, b.budgetYear AS budgetYear FROM BudgetEntity b ";
+
+    @Query(VIEW_COLUMNS + "WHERE b.user.userId = :userId")
+    List<BudgetView> findViewsByUserId(int userId);
+
+    @Query(VIEW_COLUMNS + "WHERE b.user.userId = :userId AND b.budgetMonth = :month AND b.budgetYear = :year")
+    List<BudgetView> findViewsByUserIdAndMonthAndYear(int userId, int month, int year);
+
+    @Query(VIEW_COLUMNS + "WHERE b.user.userId = :userId AND b.budgetMonth = :month")
+    List<BudgetView> findViewsByUserIdAndMonth(int userId, int month);
+
+    @Query(VIEW_COLUMNS + "WHERE b.id = :budgetId AND b.user.userId = :userId")
+    Optional<BudgetView> findViewByIdAndUserId(int budgetId, int userId);
+
+    // Source rows for BudgetIndexService
+    @Query("SELECT b.id AS id, b.category AS category, b.budgetYear AS budgetYear, b.budgetMonth AS budgetMonth " +
+           "FROM BudgetEntity b WHERE b.user.userId = :userId")
+    List<BudgetSlot> findSlotsByUserId(int userId);
+
+    // Atomic change of totalSpent, so concurrent expense writes never overwrite each other
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE budgets SET total_spent = total_spent + :amount WHERE id = :budgetId", nativeQuery = true)
+    int addToTotalSpent(int budgetId, double amount);
+
+    // As addToTotalSpent, but only if the budget still has this owner, category and month,
+    // so an id from a stale index updates nothing instead of the wrong budget
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE budgets SET total_spent = total_spent + :amount " +
+                   "WHERE id = :budgetId AND user_id = :userId AND category = :category " +
+                   "AND budget_year = :year AND budget_month = :month",
+           nativeQuery = true)
+    int addToMatchingBudget(int budgetId, int userId, String category, int year, int month, double amount);
+
+    // Set-based currency conversion, see CurrencyConversionService.convertUserCurrency
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE budgets SET original_monthly_budget = monthly_budget, " +
+                   "original_total_spent = total_spent, original_currency = :currency " +
+                   "WHERE user_id = :userId AND currency = :currency AND original_monthly_budget IS NULL",
+           nativeQuery = true)
+    int storeOriginalAmounts(int userId, String currency);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE budgets SET " +
+                   "monthly_budget = CASE WHEN original_currency = :toCurrency THEN original_monthly_budget " +
+                   "  ELSE ROUND(monthly_budget * :rate, 2) END, " +
+                   "total_spent = CASE WHEN original_currency = :toCurrency THEN original_total_spent " +
+                   "  ELSE ROUND(total_spent * :rate, 2) END, " +
+                   "currency = :toCurrency " +
+                   "WHERE user_id = :userId AND currency = :fromCurrency",
+           nativeQuery = true)
+    int convertAmounts(int userId, String fromCurrency, String toCurrency, double rate);
 }
\ No newline at end of file
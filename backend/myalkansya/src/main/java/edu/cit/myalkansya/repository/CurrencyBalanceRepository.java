@@ -0,0 +1,39 @@
+package edu.cit.myalkansya.repository;
+
+import edu.cit.myalkansya.dto.CurrencyTotal;
+import edu.cit.myalkansya.entity.CurrencyBalanceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CurrencyBalanceRepository extends JpaRepository<CurrencyBalanceEntity, Long> {
+
+    // Atomic upsert of a signed delta; concurrent writers for the same currency never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO currency_balances (user_id, currency, net_amount) " +
+                   "VALUES (:userId, :currency, :delta) " +
+                   "ON DUPLICATE KEY UPDATE net_amount = net_amount + VALUES(net_amount)",
+           nativeQuery = true)
+    void addDelta(int userId, String currency, double delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM currency_balances WHERE user_id = :userId", nativeQuery = true)
+    void deleteByUserId(int userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO currency_balances (user_id, currency, net_amount) " +
+                   "SELECT t.user_id, t.currency, SUM(t.amount) FROM (" +
+                   "  SELECT i.user_id, COALESCE(i.currency, '') AS currency, i.amount FROM incomes i WHERE i.user_id = :userId " +
+                   "  UNION ALL " +
+                   "  SELECT e.user_id, COALESCE(e.currency, '') AS currency, -e.amount FROM expenses e WHERE e.user_id = :userId" +
+                   ") t GROUP BY t.user_id, t.currency",
+           nativeQuery = true)
+    void insertBalances(int userId);
+
+    @Query("SELECT b.currency AS currency, b.netAmount AS total FROM CurrencyBalanceEntity b WHERE b.userId = :userId")
+    List<CurrencyTotal> findTotalsByUserId(int userId);
+}
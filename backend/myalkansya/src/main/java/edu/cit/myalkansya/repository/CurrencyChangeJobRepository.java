@@ -0,0 +1,85 @@
+package edu.cit.myalkansya.repository;
+
+import edu.cit.myalkansya.entity.CurrencyChangeJobEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Status writes run in their own transaction: progress is reported from inside
+ * the conversion transaction and must be visible to pollers before it commits.
+ */
+@Repository
+public interface CurrencyChangeJobRepository extends JpaRepository<CurrencyChangeJobEntity, String> {
+
+    Optional<CurrencyChangeJobEntity> findByJobIdAndUserId(String jobId, int userId);
+
+    @Query(value = "SELECT * FROM currency_change_jobs WHERE active_user_id = :userId", nativeQuery = true)
+    Optional<CurrencyChangeJobEntity> findActiveByUserId(int userId);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET status = 'RUNNING', updated_at = NOW(6) " +
+                   "WHERE job_id = :jobId AND status = 'QUEUED'",
+           nativeQuery = true)
+    int markRunning(String jobId);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET current_step = :step, completed_steps = :completedSteps, " +
+                   "total_steps = :totalSteps, updated_at = NOW(6) WHERE job_id = :jobId",
+           nativeQuery = true)
+    int updateProgress(String jobId, String step, int completedSteps, int totalSteps);
+
+    // Only a running job can finish, so a job already failed as stale never flips back to completed
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET status = 'COMPLETED', updated_at = NOW(6), finished_at = NOW(6) " +
+                   "WHERE job_id = :jobId AND status = 'RUNNING'",
+           nativeQuery = true)
+    int markCompleted(String jobId);
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET status = 'FAILED', error = :error, " +
+                   "updated_at = NOW(6), finished_at = NOW(6) WHERE job_id = :jobId AND status = 'RUNNING'",
+           nativeQuery = true)
+    int markFailed(String jobId, String error);
+
+    // For a job the executor refused, which never left the queue
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET status = 'FAILED', error = :error, " +
+                   "updated_at = NOW(6), finished_at = NOW(6) WHERE job_id = :jobId AND status = 'QUEUED'",
+           nativeQuery = true)
+    int markRejected(String jobId, String error);
+
+    // Instances touch the jobs they hold, queued or running, so only jobs of a dead instance go stale
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET updated_at = NOW(6) " +
+                   "WHERE job_id IN (:jobIds) AND status IN ('QUEUED', 'RUNNING')",
+           nativeQuery = true)
+    int heartbeat(Collection<String> jobIds);
+
+    // A job whose instance died never finishes; its conversion transaction was rolled back, so it failed
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE currency_change_jobs SET status = 'FAILED', error = 'Interrupted', " +
+                   "updated_at = NOW(6), finished_at = NOW(6) " +
+                   "WHERE active_user_id = :userId AND updated_at < NOW(6) - INTERVAL :staleSeconds SECOND",
+           nativeQuery = true)
+    int failStale(int userId, long staleSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM currency_change_jobs WHERE finished_at < NOW(6) - INTERVAL :retentionMinutes MINUTE",
+           nativeQuery = true)
+    int deleteFinishedBefore(long retentionMinutes);
+}
@@ -0,0 +1,32 @@
+package edu.cit.myalkansya.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import edu.cit.myalkansya.entity.ExchangeRateHistoryEntity;
+
+@Repository
+public interface ExchangeRateHistoryRepository extends JpaRepository<ExchangeRateHistoryEntity, Long> {
+    Optional<ExchangeRateHistoryEntity> findByBaseCurrencyAndRateDate(String baseCurrency, LocalDate rateDate);
+
+    List<ExchangeRateHistoryEntity> findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(
+            String baseCurrency, LocalDate startDate, LocalDate endDate);
+
+    // Latest table on or before a date, for days the snapshot job did not run
+    Optional<ExchangeRateHistoryEntity> findFirstByBaseCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(
+            String baseCurrency, LocalDate rateDate);
+
+    // One statement per day, so instances storing the same day concurrently never hit the unique key
+    @Modifying
+    @Query(value = "INSERT INTO exchange_rate_history (rate_date, base_currency, currency_codes, packed_rates) " +
+                   "VALUES (:rateDate, :baseCurrency, :currencyCodes, :packedRates) " +
+                   "ON DUPLICATE KEY UPDATE currency_codes = VALUES(currency_codes), packed_rates = VALUES(packed_rates)",
+           nativeQuery = true)
+    void upsert(LocalDate rateDate, String baseCurrency, String currencyCodes, byte[] packedRates);
+}
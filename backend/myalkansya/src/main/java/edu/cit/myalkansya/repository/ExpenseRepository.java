@@ -1,12 +1,16 @@
 package edu.cit.myalkansya.repository;
 
+import edu.cit.myalkansya.dto.ExpenseView;
 import edu.cit.myalkansya.entity.ExpenseEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Integer> {
@@ -19,9 +23,76 @@ public interface ExpenseRepository extends JpaRepository<ExpenseEntity, Integer>
     // Adding back the removed method
     List<ExpenseEntity> findByUserUserId(int userId);
 
-    @Query("SELECT e FROM ExpenseEntity e WHERE e.user.userId = :userId AND FUNCTION('YEAR', e.date) = :year")
-    List<ExpenseEntity> findByUserIdAndYear(int userId, int year);
+    // Half-open date range rather than YEAR()/MONTH() on the column, so idx_expenses_user_date_id applies
+    @Query("SELECT e FROM ExpenseEntity e WHERE e.user.userId = :userId AND e.date >= :startDate AND e.date < :endDate")
+    List<ExpenseEntity> findByUserIdInDateRange(int userId, LocalDate startDate, LocalDate endDate);
 
-    @Query("SELECT e FROM ExpenseEntity e WHERE e.user.userId = :userId AND FUNCTION('MONTH', e.date) = :month AND FUNCTION('YEAR', e.date) = :year")
-    List<ExpenseEntity> findByUserIdAndMonthAndYear(int userId, int month, int year);
-}
\ No newline at end of file
+    default List<ExpenseEntity> findByUserIdAndYear(int userId, int year) {
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        return findByUserIdInDateRange(userId, yearStart, yearStart.plusYears(1));
+    }
+
+    default List<ExpenseEntity> findByUserIdAndMonthAndYear(int userId, int month, int year) {
+        LocalDate monthStart = LocalDate.of(year, month, 1);
+        return findByUserIdInDateRange(userId, monthStart, monthStart.plusMonths(1));
+    }
+
+    // Flat projections for read endpoints; selecting columns keeps the user and budget unloaded
+    String VIEW_COLUMNS = "SELECT e.id AS id, e.subject AS subject, e.category AS category, " +
+                          "e.date AS date, e.amount AS amount, e.currency AS currency FROM ExpenseEntity e ";
+
+    @Query(VIEW_COLUMNS + "WHERE e.user.userId = :userId")
+    List<ExpenseView> findViewsByUserId(int userId);
+
+    @Query(VIEW_COLUMNS + "WHERE e.user.userId = :userId AND e.category = :category")
+    List<ExpenseView> findViewsByUserIdAndCategory(int userId, String category);
+
+    @Query(VIEW_COLUMNS + "WHERE e.user.userId = :userId AND e.category = :category AND e.subject = :subject")
+    List<ExpenseView> findViewsByUserIdAndCategoryAndSubject(int userId, String category, String subject);
+
+    @Query(VIEW_COLUMNS + "WHERE e.id = :expenseId AND e.user.userId = :userId")
+    Optional<ExpenseView> findViewByIdAndUserId(int expenseId, int userId);
+
+    // Keyset page ordered by (date, id) descending, undated rows last, see TransactionPages;
+    // served by idx_expenses_user_date_id. A null cursor date is a position among the undated rows.
+    @Query(VIEW_COLUMNS + "WHERE e.user.userId = :userId " +
+           "AND (:startDate IS NULL OR e.date >= :startDate) " +
+           "AND (:endDate IS NULL OR e.date <= :endDate) " +
+           "AND (:category IS NULL OR e.category = :category) " +
+           "AND (e.date < :cursorDate OR (e.date = :cursorDate AND e.id < :cursorId) " +
+           "     OR (e.date IS NULL AND (:cursorDate IS NOT NULL OR e.id < :cursorId))) " +
+           "ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseView> findPage(int userId, LocalDate startDate, LocalDate endDate, String category,
+                               LocalDate cursorDate, int cursorId, Pageable pageable);
+
+    // Set-based currency conversion, see CurrencyConversionService.convertUserCurrency
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE expenses SET original_amount = amount, original_currency = :currency " +
+                   "WHERE user_id = :userId AND currency = :currency AND original_amount IS NULL",
+           nativeQuery = true)
+    int storeOriginalAmounts(int userId, String currency);
+
+    // Rows converted back to their original currency get the stored original amount instead of a rounded product
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE expenses SET " +
+                   "amount = CASE WHEN original_currency = :toCurrency THEN original_amount ELSE ROUND(amount * :rate, 2) END, " +
+                   "currency = :toCurrency " +
+                   "WHERE user_id = :userId AND currency = :fromCurrency",
+           nativeQuery = true)
+    int convertAmounts(int userId, String fromCurrency, String toCurrency, double rate);
+
+    // Set-based budget linking, see BudgetService; the month range is served by idx_expenses_user_category_date
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE expenses SET budget_id = :budgetId " +
+                   "WHERE user_id = :userId AND category = :category " +
+                   "AND date >= :startDate AND date < :endDate AND budget_id IS NULL",
+           nativeQuery = true)
+    int linkToBudget(int budgetId, int userId, String category, LocalDate startDate, LocalDate endDate);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE expenses SET budget_id = NULL WHERE budget_id = :budgetId", nativeQuery = true)
+    int unlinkFromBudget(int budgetId);
+
+    @Query(value = "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE budget_id = :budgetId", nativeQuery = true)
+    double sumAmountByBudgetId(int budgetId);
+}
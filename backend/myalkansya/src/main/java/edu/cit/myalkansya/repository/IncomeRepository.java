@@ -1,12 +1,16 @@
 package edu.cit.myalkansya.repository;
 
+import edu.cit.myalkansya.dto.IncomeView;
 import edu.cit.myalkansya.entity.IncomeEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface IncomeRepository extends JpaRepository<IncomeEntity, Integer> {
@@ -16,6 +20,50 @@ public interface IncomeRepository extends JpaRepository<IncomeEntity, Integer> {
     // Adding back the removed method
     List<IncomeEntity> findByUserUserId(int userId);
 
-    @Query("SELECT i FROM IncomeEntity i WHERE i.user.userId = :userId AND FUNCTION('YEAR', i.date) = :year")
-    List<IncomeEntity> findByUserIdAndYear(int userId, int year);
+    // Half-open date range rather than YEAR() on the column, so idx_incomes_user_date_id applies
+    @Query("SELECT i FROM IncomeEntity i WHERE i.user.userId = :userId AND i.date >= :startDate AND i.date < :endDate")
+    List<IncomeEntity> findByUserIdInDateRange(int userId, LocalDate startDate, LocalDate endDate);
+
+    default List<IncomeEntity> findByUserIdAndYear(int userId, int year) {
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        return findByUserIdInDateRange(userId, yearStart, yearStart.plusYears(1));
+    }
+
+    // Flat projections for read endpoints; selecting columns keeps the user unloaded
+    String VIEW_COLUMNS = "SELECT i.id AS id, i.source AS source, i.date AS date, " +
+                          "i.amount AS amount, i.currency AS currency FROM IncomeEntity i ";
+
+    @Query(VIEW_COLUMNS + "WHERE i.user.userId = :userId")
+    List<IncomeView> findViewsByUserId(int userId);
+
+    @Query(VIEW_COLUMNS + "WHERE i.id = :incomeId AND i.user.userId = :userId")
+    Optional<IncomeView> findViewByIdAndUserId(int incomeId, int userId);
+
+    // Keyset page ordered by (date, id) descending, undated rows last, see TransactionPages;
+    // served by idx_incomes_user_date_id. A null cursor date is a position among the undated rows.
+    @Query(VIEW_COLUMNS + "WHERE i.user.userId = :userId " +
+           "AND (:startDate IS NULL OR i.date >= :startDate) " +
+           "AND (:endDate IS NULL OR i.date <= :endDate) " +
+           "AND (:source IS NULL OR i.source = :source) " +
+           "AND (i.date < :cursorDate OR (i.date = :cursorDate AND i.id < :cursorId) " +
+           "     OR (i.date IS NULL AND (:cursorDate IS NOT NULL OR i.id < :cursorId))) " +
+           "ORDER BY i.date DESC, i.id DESC")
+    List<IncomeView> findPage(int userId, LocalDate startDate, LocalDate endDate, String source,
+                              LocalDate cursorDate, int cursorId, Pageable pageable);
+
+    // Set-based currency conversion, see CurrencyConversionService.convertUserCurrency
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE incomes SET original_amount = amount, original_currency = :currency " +
+                   "WHERE user_id = :userId AND currency = :currency AND original_amount IS NULL",
+           nativeQuery = true)
+    int storeOriginalAmounts(int userId, String currency);
+
+    // Rows converted back to their original currency get the stored original amount instead of a rounded product
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE incomes SET " +
+                   "amount = CASE WHEN original_currency = :toCurrency THEN original_amount ELSE ROUND(amount * :rate, 2) END, " +
+                   "currency = :toCurrency " +
+                   "WHERE user_id = :userId AND currency = :fromCurrency",
+           nativeQuery = true)
+    int convertAmounts(int userId, String fromCurrency, String toCurrency, double rate);
 }
\ No newline at end of file
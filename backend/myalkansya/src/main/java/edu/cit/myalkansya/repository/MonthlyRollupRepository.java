@@ -0,0 +1,73 @@
+package edu.cit.myalkansya.repository;
+
+import edu.cit.myalkansya.dto.CategorySummaryDTO;
+import edu.cit.myalkansya.dto.MonthlyIncomeExpense;
+import edu.cit.myalkansya.entity.MonthlyRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollupEntity, Long> {
+
+    // Atomic upsert of a delta; concurrent writers for the same bucket never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO monthly_rollups " +
+                   "(user_id, rollup_year, rollup_month, kind, category, income_sum, expense_sum, income_count, expense_count) " +
+                   "VALUES (:userId, :year, :month, :kind, :category, :incomeDelta, :expenseDelta, :incomeCountDelta, :expenseCountDelta) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "income_sum = income_sum + VALUES(income_sum), " +
+                   "expense_sum = expense_sum + VALUES(expense_sum), " +
+                   "income_count = income_count + VALUES(income_count), " +
+                   "expense_count = expense_count + VALUES(expense_count)",
+           nativeQuery = true)
+    void addDelta(int userId, int year, int month, String kind, String category,
+                  double incomeDelta, double expenseDelta, int incomeCountDelta, int expenseCountDelta);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM monthly_rollups WHERE user_id = :userId", nativeQuery = true)
+    void deleteByUserId(int userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO monthly_rollups " +
+                   "(user_id, rollup_year, rollup_month, kind, category, income_sum, expense_sum, income_count, expense_count) " +
+                   "SELECT e.user_id, YEAR(e.date), MONTH(e.date), 'EXPENSE', COALESCE(e.category, ''), 0, SUM(e.amount), 0, COUNT(*) " +
+                   "FROM expenses e WHERE e.user_id = :userId AND e.date IS NOT NULL " +
+                   "GROUP BY e.user_id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, '')",
+           nativeQuery = true)
+    void insertExpenseRollups(int userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO monthly_rollups " +
+                   "(user_id, rollup_year, rollup_month, kind, category, income_sum, expense_sum, income_count, expense_count) " +
+                   "SELECT i.user_id, YEAR(i.date), MONTH(i.date), 'INCOME', '', SUM(i.amount), 0, COUNT(*), 0 " +
+                   "FROM incomes i WHERE i.user_id = :userId AND i.date IS NOT NULL " +
+                   "GROUP BY i.user_id, YEAR(i.date), MONTH(i.date)",
+           nativeQuery = true)
+    void insertIncomeRollups(int userId);
+
+    @Query("SELECT r.month AS monthValue, SUM(r.incomeSum) AS income, SUM(r.expenseSum) AS expenses " +
+           "FROM MonthlyRollupEntity r WHERE r.userId = :userId AND r.year = :year GROUP BY r.month")
+    List<MonthlyIncomeExpense> sumByMonth(int userId, int year);
+
+    @Query("SELECT r.month AS monthValue, SUM(r.incomeSum) AS income, SUM(r.expenseSum) AS expenses " +
+           "FROM MonthlyRollupEntity r WHERE r.userId = :userId AND r.year = :year AND r.month = :month GROUP BY r.month")
+    List<MonthlyIncomeExpense> sumForMonth(int userId, int year, int month);
+
+    @Query("SELECT new edu.cit.myalkansya.dto.CategorySummaryDTO(r.category, SUM(r.expenseSum)) " +
+           "FROM MonthlyRollupEntity r WHERE r.userId = :userId AND r.expenseCount > 0 GROUP BY r.category")
+    List<CategorySummaryDTO> sumByCategory(int userId);
+
+    @Query("SELECT new edu.cit.myalkansya.dto.CategorySummaryDTO(r.category, SUM(r.expenseSum)) " +
+           "FROM MonthlyRollupEntity r WHERE r.userId = :userId AND r.year = :year AND r.expenseCount > 0 " +
+           "GROUP BY r.category")
+    List<CategorySummaryDTO> sumByCategory(int userId, int year);
+
+    @Query("SELECT new edu.cit.myalkansya.dto.CategorySummaryDTO(r.category, SUM(r.expenseSum)) " +
+           "FROM MonthlyRollupEntity r WHERE r.userId = :userId AND r.year = :year AND r.month = :month " +
+           "AND r.expenseCount > 0 GROUP BY r.category")
+    List<CategorySummaryDTO> sumByCategory(int userId, int year, int month);
+}
@@ -0,0 +1,58 @@
+package edu.cit.myalkansya.repository;
+
+import edu.cit.myalkansya.entity.ProfileImageRenditionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Writes commit on their own, so a stored rendition is durable before the
+ * upload request returns and a push is recorded before the next one starts.
+ */
+@Repository
+public interface ProfileImageRenditionRepository extends JpaRepository<ProfileImageRenditionEntity, String> {
+
+    // Identical bytes share a row; the first upload's row, pushed or not, is kept
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO profile_image_renditions " +
+                   "(rendition_key, content, content_length, attempts, created_at, next_attempt_at) " +
+                   "VALUES (:renditionKey, :content, :contentLength, 0, NOW(6), NOW(6))",
+           nativeQuery = true)
+    int insertPending(String renditionKey, byte[] content, int contentLength);
+
+    @Query(value = "SELECT cdn_url FROM profile_image_renditions WHERE rendition_key = :renditionKey", nativeQuery = true)
+    String findCdnUrl(String renditionKey);
+
+    @Query(value = "SELECT rendition_key FROM profile_image_renditions " +
+                   "WHERE pushed_at IS NULL AND next_attempt_at <= NOW(6) ORDER BY next_attempt_at LIMIT :limit",
+           nativeQuery = true)
+    List<String> findDueKeys(int limit);
+
+    // Moves the next attempt past the push, so an overrunning batch on another instance skips this row
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE profile_image_renditions SET next_attempt_at = NOW(6) + INTERVAL :claimSeconds SECOND " +
+                   "WHERE rendition_key = :renditionKey AND pushed_at IS NULL AND next_attempt_at <= NOW(6)",
+           nativeQuery = true)
+    int claim(String renditionKey, long claimSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE profile_image_renditions SET cdn_url = :cdnUrl, pushed_at = NOW(6), content = NULL, " +
+                   "last_error = NULL WHERE rendition_key = :renditionKey AND pushed_at IS NULL",
+           nativeQuery = true)
+    int markPushed(String renditionKey, String cdnUrl);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE profile_image_renditions SET attempts = attempts + 1, last_error = :error, " +
+                   "next_attempt_at = NOW(6) + INTERVAL :retrySeconds SECOND " +
+                   "WHERE rendition_key = :renditionKey AND pushed_at IS NULL",
+           nativeQuery = true)
+    int markAttemptFailed(String renditionKey, String error, long retrySeconds);
+}
@@ -1,15 +1,49 @@
 package edu.cit.myalkansya.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import edu.cit.myalkansya.dto.SavingsGoalView;
 import edu.cit.myalkansya.entity.SavingsGoalEntity;
 import edu.cit.myalkansya.entity.UserEntity;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SavingsGoalRepository extends JpaRepository<SavingsGoalEntity, Integer> {
     List<SavingsGoalEntity> findByUser(UserEntity user);
     List<SavingsGoalEntity> findByUserUserId(int userId);
+
+    // Flat projections for read endpoints; selecting columns keeps the user unloaded
+    String VIEW_COLUMNS = "SELECT g.id AS id, g.goal AS goal, g.targetAmount AS targetAmount, " +
+                          "g.currentAmount AS currentAmount, g.targetDate AS targetDate, " +
+                          "g.currency AS currency FROM SavingsGoalEntity g ";
+
+    @Query(VIEW_COLUMNS + "WHERE g.user.userId = :userId")
+    List<SavingsGoalView> findViewsByUserId(int userId);
+
+    @Query(VIEW_COLUMNS + "WHERE g.id = :goalId AND g.user.userId = :userId")
+    Optional<SavingsGoalView> findViewByIdAndUserId(int goalId, int userId);
+
+    // Set-based currency conversion, see CurrencyConversionService.convertUserCurrency
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE savings_goals SET original_target_amount = target_amount, " +
+                   "original_current_amount = current_amount, original_currency = :currency " +
+                   "WHERE user_id = :userId AND currency = :currency AND original_target_amount IS NULL",
+           nativeQuery = true)
+    int storeOriginalAmounts(int userId, String currency);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE savings_goals SET " +
+                   "target_amount = CASE WHEN original_currency = :toCurrency THEN original_target_amount " +
+                   "  ELSE ROUND(target_amount * :rate, 2) END, " +
+                   "current_amount = CASE WHEN original_currency = :toCurrency THEN original_current_amount " +
+                   "  ELSE ROUND(current_amount * :rate, 2) END, " +
+                   "currency = :toCurrency " +
+                   "WHERE user_id = :userId AND currency = :fromCurrency",
+           nativeQuery = true)
+    int convertAmounts(int userId, String fromCurrency, String toCurrency, double rate);
 }
\ No newline at end of file
@@ -1,11 +1,68 @@
 package edu.cit.myalkansya.repository;
 
+import edu.cit.myalkansya.dto.FinancialTotals;
 import edu.cit.myalkansya.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<UserEntity, Integer> {
     Optional<UserEntity> findByEmail(String email);
     Optional<UserEntity> findByProviderId(String providerId);
+
+    @Query("SELECT u.userId FROM UserEntity u ORDER BY u.userId")
+    List<Integer> findAllUserIds();
+
+    // Income, expense and budget totals for one month plus the user's balance, in a single round trip
+    @Query(value = "SELECT " +
+                   "(SELECT COALESCE(SUM(r.income_sum), 0) FROM monthly_rollups r " +
+                   "  WHERE r.user_id = u.user_id AND r.rollup_year = :year AND r.rollup_month = :month) AS totalIncome, " +
+                   "(SELECT COALESCE(SUM(r.expense_sum), 0) FROM monthly_rollups r " +
+                   "  WHERE r.user_id = u.user_id AND r.rollup_year = :year AND r.rollup_month = :month) AS totalExpenses, " +
+                   "(SELECT COALESCE(SUM(b.monthly_budget), 0) FROM budgets b " +
+                   "  WHERE b.user_id = u.user_id AND b.budget_year = :year AND b.budget_month = :month) AS totalBudget, " +
+                   "u.total_savings AS totalSavings, " +
+                   "u.currency AS currency " +
+                   "FROM users u WHERE u.user_id = :userId",
+           nativeQuery = true)
+    Optional<FinancialTotals> findFinancialTotals(int userId, int year, int month);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET original_total_savings = total_savings, original_currency = :currency " +
+                   "WHERE user_id = :userId AND currency = :currency AND original_total_savings IS NULL",
+           nativeQuery = true)
+    int storeOriginalTotalSavings(int userId, String currency);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE users SET total_savings = :totalSavings, currency = :currency WHERE user_id = :userId",
+           nativeQuery = true)
+    int updateTotalSavings(int userId, double totalSavings, String currency);
+
+    // Atomic increment, so concurrent writers never overwrite each other's change
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE users SET total_savings = total_savings + :amount WHERE user_id = :userId",
+           nativeQuery = true)
+    int addToTotalSavings(int userId, double amount);
+
+    // Holds the user's row lock until the surrounding transaction ends
+    @Query(value = "SELECT total_savings FROM users WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Double> lockTotalSavings(int userId);
+
+    @Query(value = "SELECT currency FROM users WHERE user_id = :userId", nativeQuery = true)
+    String findCurrencyByUserId(int userId);
+
+    // Points users still on a pending rendition's local URL at its CDN copy; a newer upload has its own URL
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE users SET " +
+                   "profile_picture = CASE WHEN profile_picture = :localUrl THEN :cdnUrl ELSE profile_picture END, " +
+                   "profile_picture_thumbnail = CASE WHEN profile_picture_thumbnail = :localUrl " +
+                   "  THEN :cdnUrl ELSE profile_picture_thumbnail END " +
+                   "WHERE profile_picture = :localUrl OR profile_picture_thumbnail = :localUrl",
+           nativeQuery = true)
+    int replaceProfilePictureUrl(String localUrl, String cdnUrl);
 }
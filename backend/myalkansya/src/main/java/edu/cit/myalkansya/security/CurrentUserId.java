@@ -0,0 +1,15 @@
+package edu.cit.myalkansya.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the id of the authenticated user into a controller method parameter.
+ * The id is resolved once per request by {@link JwtAuthenticationFilter}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUserId {
+}
@@ -1,45 +1,55 @@
 package edu.cit.myalkansya.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory; // Using Gson instead of Jackson
 import edu.cit.myalkansya.dto.GoogleUserDTO;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
-import java.util.Arrays;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Verifies Google ID tokens with the shared {@link GoogleIdTokenVerifier} bean.
+ * Successful results are kept briefly by token hash, so a retried or
+ * double-submitted sign-in from the mobile app skips the signature check.
+ * Concurrent checks of the same token wait for one verification.
+ */
 @Component
 public class GoogleTokenVerifier {
 
     private static final Logger logger = Logger.getLogger(GoogleTokenVerifier.class.getName());
-    
-    // Web client ID
-    private static final String WEB_CLIENT_ID = "275880440953-akhnvpmdmm4hiutcji6mcjtbap9cq7q1.apps.googleusercontent.com";
-    
-    // Android client ID - add this line
-    private static final String ANDROID_CLIENT_ID = "275880440953-bghdgma37revndr2vepueat789feq9gtk.apps.googleusercontent.com";
 
     private final GoogleIdTokenVerifier verifier;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    public GoogleTokenVerifier() {
-        this.verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                .setAudience(Arrays.asList(WEB_CLIENT_ID, ANDROID_CLIENT_ID))  // Accept both client IDs
+    public GoogleTokenVerifier(GoogleIdTokenVerifier verifier,
+                               @Value("${google.oauth.verified-cache.max-size:10000}") long maxSize,
+                               @Value("${google.oauth.verified-cache.ttl-seconds:120}") long ttlSeconds) {
+        this.verifier = verifier;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(Duration.ofSeconds(ttlSeconds)))
                 .build();
-        
-        logger.info("Google Token Verifier initialized with Web Client ID: " + WEB_CLIENT_ID);
-        logger.info("Google Token Verifier initialized with Android Client ID: " + ANDROID_CLIENT_ID);
     }
 
     public GoogleUserDTO verifyGoogleToken(String idToken) {
+        VerifiedToken verified = verifiedTokens.get(TokenHashes.sha256(idToken), key -> verify(idToken));
+        return verified != null ? verified.user : null;
+    }
+
+    // Returns null for invalid tokens, which are not cached
+    private VerifiedToken verify(String idToken) {
         try {
-            logger.info("Attempting to verify Google token...");
             GoogleIdToken googleIdToken = verifier.verify(idToken);
-            
+
             if (googleIdToken == null) {
                 logger.warning("Google token verification failed: Token is invalid");
                 return null; // Token is invalid
@@ -51,13 +61,51 @@ public class GoogleTokenVerifier {
             String email = payload.getEmail();
             String profilePicture = (String) payload.get("picture");
             String providerId = payload.getSubject();
-            
+
             logger.info("Google token verified successfully for email: " + email);
-            return new GoogleUserDTO(firstname, lastname, email, profilePicture, providerId);
-        } catch (GeneralSecurityException | IOException e) {
-            logger.severe("Exception during Google token verification: " + e.getMessage());
-            e.printStackTrace();
+            GoogleUserDTO user = new GoogleUserDTO(firstname, lastname, email, profilePicture, providerId);
+            return new VerifiedToken(user, payload.getExpirationTimeSeconds());
+        } catch (GeneralSecurityException | IOException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, "Exception during Google token verification: " + e.getMessage(), e);
             return null;
         }
     }
+
+    private static final class VerifiedToken {
+        private final GoogleUserDTO user;
+        private final Long expirationTimeSeconds;
+
+        private VerifiedToken(GoogleUserDTO user, Long expirationTimeSeconds) {
+            this.user = user;
+            this.expirationTimeSeconds = expirationTimeSeconds;
+        }
+    }
+
+    // A cached result never outlives the token it was verified from
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        private final long ttlNanos;
+
+        private TokenExpiry(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            if (value.expirationTimeSeconds == null) {
+                return ttlNanos;
+            }
+            long untilExpiry = TimeUnit.SECONDS.toMillis(value.expirationTimeSeconds) - System.currentTimeMillis();
+            return Math.max(0, Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(untilExpiry)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
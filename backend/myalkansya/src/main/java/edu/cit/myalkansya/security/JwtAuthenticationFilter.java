@@ -0,0 +1,93 @@
+package edu.cit.myalkansya.security;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.cit.myalkansya.repository.UserRepository;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Resolves the bearer token once per request into a {@link UserPrincipal}.
+ * Resolved principals are cached by token hash so repeat calls with the same
+ * token skip both the signature check and the users-table lookup.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = Logger.getLogger(JwtAuthenticationFilter.class.getName());
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final Cache<String, UserPrincipal> principalCache;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   UserRepository userRepository,
+                                   @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                                   @Value("${auth.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.principalCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+
+        if (header != null && header.startsWith(BEARER_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String token = header.substring(BEARER_PREFIX.length()).trim();
+            resolvePrincipal(token).ifPresent(principal -> {
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(principal, null, Collections.emptyList());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            });
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Optional<UserPrincipal> resolvePrincipal(String token) {
+        String key = TokenHashes.sha256(token);
+        UserPrincipal cached = principalCache.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isTokenExpired()) {
+                return Optional.of(cached);
+            }
+            principalCache.invalidate(key);
+            return Optional.empty();
+        }
+
+        try {
+            VerifiedClaims claims = jwtUtil.verify(token);
+            Optional<UserPrincipal> principal = userRepository.findByEmail(claims.getSubject())
+                    .map(user -> new UserPrincipal(user.getUserId(), user.getEmail(), claims.getExpiration()));
+            principal.ifPresent(p -> principalCache.put(key, p));
+            return principal;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.fine("Rejected bearer token: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -5,7 +5,9 @@ import java.util.Date;
 
 import org.springframework.stereotype.Component;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -15,12 +17,19 @@ public class JwtUtil {
     private final Key key;
     private final long expirationMs = 24 * 60 * 60 * 1000; // 24 hours
 
+    // Built once; JwtParser is immutable and safe to share across request threads
+    private final JwtParser parser;
+
     public JwtUtil() {
-        String secret = System.getenv("JWT_SECRET"); // Load secret from environment variable
+        this(System.getenv("JWT_SECRET")); // Load secret from environment variable
+    }
+
+    JwtUtil(String secret) {
         if (secret == null || secret.isEmpty()) {
             throw new IllegalStateException("JWT_SECRET environment variable is not set");
         }
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String generateToken(String email) {
@@ -32,19 +41,26 @@ public class JwtUtil {
                 .compact();
     }
 
+    /**
+     * Verify the signature and expiry of a token in a single parse.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedClaims verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new VerifiedClaims(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration());
+    }
+
     public String extractEmail(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            verify(token);
             return true;
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package edu.cit.myalkansya.security;
+
+import java.util.Date;
+
+/**
+ * Authenticated caller resolved from a JWT by {@link JwtAuthenticationFilter}.
+ * Holds only what the controllers need so it is cheap to cache.
+ */
+public class UserPrincipal {
+
+    private final int userId;
+    private final String email;
+    private final Date tokenExpiration;
+
+    public UserPrincipal(int userId, String email, Date tokenExpiration) {
+        this.userId = userId;
+        this.email = email;
+        this.tokenExpiration = tokenExpiration;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Date getTokenExpiration() {
+        return tokenExpiration;
+    }
+
+    // A cached principal must not outlive the token it was resolved from
+    public boolean isTokenExpired() {
+        return tokenExpiration != null && tokenExpiration.before(new Date());
+    }
+}
@@ -0,0 +1,35 @@
+package edu.cit.myalkansya.security;
+
+import java.util.Date;
+
+/**
+ * Claims of a token whose signature and expiry have already been checked by {@link JwtUtil#verify}.
+ */
+public class VerifiedClaims {
+
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    public VerifiedClaims(String subject, Date issuedAt, Date expiration) {
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Date getExpiration() {
+        return expiration;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
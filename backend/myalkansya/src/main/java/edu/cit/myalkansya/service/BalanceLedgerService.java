@@ -0,0 +1,72 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.entity.BalanceLedgerEntity;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity.EntryType;
+import edu.cit.myalkansya.repository.BalanceLedgerRepository;
+import edu.cit.myalkansya.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Single writer of users.total_savings. Every change appends a ledger entry and
+ * applies the same amount with an in-database increment, both in the caller's
+ * transaction, so concurrent requests cannot lose each other's update.
+ */
+@Service
+public class BalanceLedgerService {
+
+    @Autowired
+    private BalanceLedgerRepository balanceLedgerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Transactional
+    public void record(int userId, double amount, EntryType entryType, Integer referenceId) {
+        if (amount == 0.0) {
+            return;
+        }
+        balanceLedgerRepository.save(new BalanceLedgerEntity(userId, amount, entryType, referenceId));
+        if (userRepository.addToTotalSavings(userId, amount) == 0) {
+            throw new NoSuchElementException("User with ID " + userId + " not found.");
+        }
+    }
+
+    /**
+     * Replace the balance with a value computed elsewhere, such as after a currency
+     * change. The row is locked first so the difference recorded in the ledger
+     * is exact even while other requests are writing.
+     */
+    @Transactional
+    public void rebase(int userId, double newTotal, String currency) {
+        double currentTotal = userRepository.lockTotalSavings(userId)
+                .orElseThrow(() -> new NoSuchElementException("User with ID " + userId + " not found."));
+        balanceLedgerRepository.save(new BalanceLedgerEntity(userId, newTotal - currentTotal, EntryType.CURRENCY_CHANGE, null));
+        userRepository.updateTotalSavings(userId, newTotal, currency);
+    }
+
+    /**
+     * Set the stored balance to the ledger total if they still differ by more
+     * than the tolerance. The check is repeated under the user's row lock,
+     * which every balance write takes, so a write that landed after the
+     * reconciliation query is never mistaken for drift.
+     *
+     * @return the correction applied, or 0 if the balance already matched
+     */
+    @Transactional
+    public double correctDrift(int userId, double tolerance) {
+        Double storedTotal = userRepository.lockTotalSavings(userId).orElse(null);
+        if (storedTotal == null) {
+            return 0.0;
+        }
+        double correction = balanceLedgerRepository.sumByUserId(userId) - storedTotal;
+        if (Math.abs(correction) <= tolerance) {
+            return 0.0;
+        }
+        userRepository.addToTotalSavings(userId, correction);
+        return correction;
+    }
+}
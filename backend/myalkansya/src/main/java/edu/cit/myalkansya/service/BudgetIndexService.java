@@ -0,0 +1,78 @@
+package edu.cit.myalkansya.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import edu.cit.myalkansya.dto.BudgetSlot;
+import edu.cit.myalkansya.repository.BudgetRepository;
+
+/**
+ * In-memory map from (category, year, month) to budget id for each user, so
+ * attributing an expense to its budget needs no query. A user's entry is
+ * loaded with one projection query and dropped whenever their budgets change.
+ */
+@Service
+public class BudgetIndexService {
+
+    private final BudgetRepository budgetRepository;
+    private final LoadingCache<Integer, Map<String, Integer>> budgetsByUser;
+
+    public BudgetIndexService(BudgetRepository budgetRepository,
+                              @Value("${budget.index.max-users:10000}") long maxUsers,
+                              @Value("${budget.index.ttl-minutes:10}") long ttlMinutes) {
+        this.budgetRepository = budgetRepository;
+        this.budgetsByUser = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build(this::loadIndex);
+    }
+
+    // Budget covering the month of the given date, if the user has one for that category
+    public Optional<Integer> findBudgetId(int userId, String category, LocalDate date) {
+        if (date == null || category == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(budgetsByUser.get(userId)
+                .get(keyOf(category, date.getYear(), date.getMonthValue())));
+    }
+
+    /**
+     * Drop a user's index. Inside a transaction it is dropped again after commit,
+     * so a lookup made before the commit cannot cache the old budgets.
+     */
+    public void invalidate(int userId) {
+        budgetsByUser.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    budgetsByUser.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private Map<String, Integer> loadIndex(Integer userId) {
+        Map<String, Integer> index = new HashMap<>();
+        for (BudgetSlot slot : budgetRepository.findSlotsByUserId(userId)) {
+            index.putIfAbsent(keyOf(slot.getCategory(), slot.getBudgetYear(), slot.getBudgetMonth()), slot.getId());
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static String keyOf(String category, int year, int month) {
+        return year + "-" + month + ":" + category;
+    }
+}
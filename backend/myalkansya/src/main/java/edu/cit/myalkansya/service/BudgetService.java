@@ -10,8 +10,8 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import edu.cit.myalkansya.dto.BudgetView;
 import edu.cit.myalkansya.entity.BudgetEntity;
-import edu.cit.myalkansya.entity.ExpenseEntity;
 import edu.cit.myalkansya.entity.UserEntity;
 import edu.cit.myalkansya.repository.BudgetRepository;
 import edu.cit.myalkansya.repository.ExpenseRepository;
@@ -29,6 +29,9 @@ public class BudgetService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BudgetIndexService budgetIndexService;
+
     // CREATE
     @Transactional
     public BudgetEntity createBudget(BudgetEntity budget, int userId) {
@@ -57,24 +60,9 @@ public class BudgetService {
         
         BudgetEntity savedBudget = budgetRepository.save(budget);
         
-        // Find all expenses for this category and link them to this budget
-        List<ExpenseEntity> expenses = expenseRepository.findByUserUserIdAndCategory(userId, budget.getCategory());
-        double totalSpent = 0.0;
-        
-        for (ExpenseEntity expense : expenses) {
-            // Only link expenses from the same month/year
-            LocalDate expenseDate = expense.getDate();
-            if (expenseDate.getMonthValue() == budget.getBudgetMonth() && 
-                expenseDate.getYear() == budget.getBudgetYear() && 
-                expense.getBudget() == null) {
-                expense.setBudget(savedBudget);
-                expenseRepository.save(expense);
-                totalSpent += expense.getAmount();
-            }
-        }
-        
-        // Update the total spent in the budget
-        savedBudget.setTotalSpent(totalSpent);
+        // Link the unassigned expenses of this category and month, then total them
+        linkExpenses(savedBudget, userId);
+        budgetIndexService.invalidate(userId);
         return budgetRepository.save(savedBudget);
     }
     
@@ -88,17 +76,22 @@ public class BudgetService {
                 .orElseThrow(() -> new NoSuchElementException("Budget not found with ID: " + id));
     }
 
-    public List<BudgetEntity> getBudgetsByUserId(int userId) {
-        return budgetRepository.findByUserUserId(userId);
+    // Ownership is part of the query, so an empty result covers both missing and foreign budgets
+    public Optional<BudgetView> getBudgetView(int id, int userId) {
+        return budgetRepository.findViewByIdAndUserId(id, userId);
+    }
+
+    public List<BudgetView> getBudgetsByUserId(int userId) {
+        return budgetRepository.findViewsByUserId(userId);
     }
 
     // New methods for filtering
-    public List<BudgetEntity> getBudgetsByMonth(int userId, int month, int year) {
-        return budgetRepository.findByUserUserIdAndBudgetMonthAndBudgetYear(userId, month, year);
+    public List<BudgetView> getBudgetsByMonth(int userId, int month, int year) {
+        return budgetRepository.findViewsByUserIdAndMonthAndYear(userId, month, year);
     }
     
-    public List<BudgetEntity> getBudgetsByMonth(int userId, int month) {
-        return budgetRepository.findByUserUserIdAndBudgetMonth(userId, month);
+    public List<BudgetView> getBudgetsByMonth(int userId, int month) {
+        return budgetRepository.findViewsByUserIdAndMonth(userId, month);
     }
     
     // UPDATE
@@ -130,47 +123,28 @@ public class BudgetService {
         // Store current totalSpent before updating
         double currentTotalSpent = existingBudget.getTotalSpent();
         
+        // Only recalculate expenses if month/year or category changed; decided before any field is overwritten
+        boolean needsToRecalculateExpenses = existingBudget.getBudgetMonth() != budget.getBudgetMonth() ||
+                                             existingBudget.getBudgetYear() != budget.getBudgetYear() ||
+                                             !existingBudget.getCategory().equals(budget.getCategory());
+        
         // Update fields (but maintain the totalSpent value)
         existingBudget.setCategory(budget.getCategory());
         existingBudget.setMonthlyBudget(budget.getMonthlyBudget());
         existingBudget.setCurrency(budget.getCurrency());
         
-        // Only recalculate expenses if month/year or category changed
-        boolean needsToRecalculateExpenses = existingBudget.getBudgetMonth() != budget.getBudgetMonth() ||
-                                             existingBudget.getBudgetYear() != budget.getBudgetYear() ||
-                                             !existingBudget.getCategory().equals(budget.getCategory());
-        
         if (needsToRecalculateExpenses) {
             existingBudget.setBudgetMonth(budget.getBudgetMonth());
             existingBudget.setBudgetYear(budget.getBudgetYear());
             
-            // Unlink all current expenses
-            List<ExpenseEntity> oldExpenses = expenseRepository.findByBudgetId(existingBudget.getId());
-            for (ExpenseEntity expense : oldExpenses) {
-                expense.setBudget(null);
-                expenseRepository.save(expense);
-            }
-            
-            // Link expenses for the new month/year and category
-            List<ExpenseEntity> newExpenses = expenseRepository.findByUserUserIdAndCategory(
-                userId, existingBudget.getCategory());
-            
-            double totalSpent = 0.0;
-            for (ExpenseEntity expense : newExpenses) {
-                LocalDate expenseDate = expense.getDate();
-                if (expenseDate.getMonthValue() == existingBudget.getBudgetMonth() && 
-                    expenseDate.getYear() == existingBudget.getBudgetYear()) {
-                    expense.setBudget(existingBudget);
-                    expenseRepository.save(expense);
-                    totalSpent += expense.getAmount();
-                }
-            }
-            
-            existingBudget.setTotalSpent(totalSpent);
+            // Unlink all current expenses, then link those of the new month/year and category
+            expenseRepository.unlinkFromBudget(existingBudget.getId());
+            linkExpenses(existingBudget, userId);
         } else {
             // If we're not changing category/month/year, keep the existing totalSpent
             existingBudget.setTotalSpent(currentTotalSpent);
         }
+        budgetIndexService.invalidate(userId);
         
         return budgetRepository.save(existingBudget);
     }
@@ -187,13 +161,18 @@ public class BudgetService {
         }
         
         // Unlink all expenses from this budget
-        List<ExpenseEntity> expenses = expenseRepository.findByBudgetId(id);
-        for (ExpenseEntity expense : expenses) {
-            expense.setBudget(null);
-            expenseRepository.save(expense);
-        }
+        expenseRepository.unlinkFromBudget(id);
         
         // Delete the budget
         budgetRepository.deleteById(id);
+        budgetIndexService.invalidate(userId);
+    }
+    
+    // Two statements regardless of history size: one range UPDATE and one SUM over the linked rows
+    private void linkExpenses(BudgetEntity budget, int userId) {
+        LocalDate monthStart = LocalDate.of(budget.getBudgetYear(), budget.getBudgetMonth(), 1);
+        expenseRepository.linkToBudget(budget.getId(), userId, budget.getCategory(),
+                monthStart, monthStart.plusMonths(1));
+        budget.setTotalSpent(expenseRepository.sumAmountByBudgetId(budget.getId()));
     }
 }
\ No newline at end of file
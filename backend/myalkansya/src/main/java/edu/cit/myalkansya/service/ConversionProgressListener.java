@@ -0,0 +1,13 @@
+package edu.cit.myalkansya.service;
+
+/**
+ * Receives progress while {@link CurrencyConversionService} converts a user's data.
+ * Called on the converting thread after each step completes.
+ */
+@FunctionalInterface
+public interface ConversionProgressListener {
+
+    ConversionProgressListener NONE = (step, completedSteps, totalSteps, rowsUpdated) -> { };
+
+    void onProgress(String step, int completedSteps, int totalSteps, int rowsUpdated);
+}
@@ -0,0 +1,81 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.dto.CurrencyTotal;
+import edu.cit.myalkansya.money.Money;
+import edu.cit.myalkansya.repository.CurrencyBalanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.logging.Logger;
+
+/**
+ * Keeps the currency_balances table in step with incomes and expenses.
+ * The record/remove methods are meant to be called from inside the
+ * transaction that writes the underlying row.
+ */
+@Service
+public class CurrencyBalanceService {
+
+    private static final Logger logger = Logger.getLogger(CurrencyBalanceService.class.getName());
+
+    @Autowired
+    private CurrencyBalanceRepository currencyBalanceRepository;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Transactional
+    public void recordIncome(int userId, String currency, double amount) {
+        currencyBalanceRepository.addDelta(userId, keyOf(currency), amount);
+    }
+
+    @Transactional
+    public void removeIncome(int userId, String currency, double amount) {
+        currencyBalanceRepository.addDelta(userId, keyOf(currency), -amount);
+    }
+
+    @Transactional
+    public void recordExpense(int userId, String currency, double amount) {
+        currencyBalanceRepository.addDelta(userId, keyOf(currency), -amount);
+    }
+
+    @Transactional
+    public void removeExpense(int userId, String currency, double amount) {
+        currencyBalanceRepository.addDelta(userId, keyOf(currency), amount);
+    }
+
+    /**
+     * Recompute every balance row of a user from the transaction tables.
+     * Used after bulk rewrites such as a currency change; the initial backfill is migration V8.
+     */
+    @Transactional
+    public void rebuildForUser(int userId) {
+        currencyBalanceRepository.deleteByUserId(userId);
+        currencyBalanceRepository.insertBalances(userId);
+        logger.fine("Rebuilt currency balances for user " + userId);
+    }
+
+    /**
+     * Incomes minus expenses of a user expressed in one currency, converting
+     * each per-currency balance once. Balances without a currency are taken as is.
+     */
+    @Transactional(readOnly = true)
+    public double getNetTotalIn(int userId, String targetCurrency) {
+        // Summed in whole cents so the total carries no binary rounding error
+        long totalMinorUnits = 0L;
+        for (CurrencyTotal balance : currencyBalanceRepository.findTotalsByUserId(userId)) {
+            long minorUnits = Money.toMinorUnits(balance.getTotal() != null ? balance.getTotal() : 0.0);
+            String currency = balance.getCurrency();
+            if (!currency.isEmpty() && !currency.equals(targetCurrency)) {
+                minorUnits = Money.convertMinorUnits(minorUnits, exchangeRateService.getExchangeRate(currency, targetCurrency));
+            }
+            totalMinorUnits += minorUnits;
+        }
+        return Money.toMajorUnits(totalMinorUnits);
+    }
+
+    private static String keyOf(String currency) {
+        return currency != null ? currency : "";
+    }
+}
@@ -0,0 +1,169 @@
+package edu.cit.myalkansya.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import edu.cit.myalkansya.entity.CurrencyChangeJobEntity;
+import edu.cit.myalkansya.repository.CurrencyChangeJobRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs currency changes off the request thread. Jobs execute on a small
+ * bounded pool and their status lives in currency_change_jobs, so any
+ * instance can report on a job. A unique index on the active user lets each
+ * user have at most one conversion in flight across all instances, so two
+ * quick switches never interleave. The conversion itself is a single
+ * transaction, so readers see either the old currency or the new one.
+ * Each instance heartbeats the jobs it holds, so a job is only failed as
+ * abandoned once the instance that queued it has stopped.
+ */
+@Service
+public class CurrencyChangeJobService {
+
+    private static final Logger logger = Logger.getLogger(CurrencyChangeJobService.class.getName());
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final CurrencyConversionService currencyConversionService;
+    private final CurrencyChangeJobRepository jobRepository;
+    private final ThreadPoolExecutor executor;
+    private final long retentionMinutes;
+    private final Duration staleAfter;
+    private final Set<String> heldJobIds = ConcurrentHashMap.newKeySet();
+
+    public CurrencyChangeJobService(CurrencyConversionService currencyConversionService,
+                                    CurrencyChangeJobRepository jobRepository,
+                                    @Value("${currency.change.pool-size:2}") int poolSize,
+                                    @Value("${currency.change.queue-capacity:100}") int queueCapacity,
+                                    @Value("${currency.change.retention-minutes:60}") long retentionMinutes,
+                                    @Value("${currency.change.stale-after-minutes:15}") long staleAfterMinutes) {
+        this.currencyConversionService = currencyConversionService;
+        this.jobRepository = jobRepository;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "currency-change-" + threadCount.incrementAndGet()));
+        this.retentionMinutes = retentionMinutes;
+        this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+    }
+
+    /**
+     * Queue a conversion and return immediately.
+     *
+     * @throws IllegalStateException if the user already has a conversion in flight
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public CurrencyChangeJobEntity submit(int userId, String fromCurrency, String toCurrency) {
+        CurrencyChangeJobEntity job = claim(userId, fromCurrency, toCurrency);
+        try {
+            executor.execute(() -> run(job.getJobId(), userId, fromCurrency, toCurrency));
+        } catch (RejectedExecutionException e) {
+            heldJobIds.remove(job.getJobId());
+            jobRepository.markRejected(job.getJobId(), "Too many currency changes in progress, please try again shortly");
+            throw e;
+        }
+        return job;
+    }
+
+    /**
+     * Run a conversion on the calling thread, still holding the user's slot so
+     * it cannot overlap a background job.
+     *
+     * @throws IllegalStateException if the user already has a conversion in flight
+     */
+    public CurrencyChangeJobEntity runNow(int userId, String fromCurrency, String toCurrency) {
+        CurrencyChangeJobEntity job = claim(userId, fromCurrency, toCurrency);
+        String error = run(job.getJobId(), userId, fromCurrency, toCurrency);
+        if (error != null) {
+            throw new RuntimeException(error);
+        }
+        return jobRepository.findById(job.getJobId()).orElse(job);
+    }
+
+    // Jobs are only visible to the user who started them
+    public Optional<CurrencyChangeJobEntity> getJob(String jobId, int userId) {
+        return jobRepository.findByJobIdAndUserId(jobId, userId);
+    }
+
+    public Optional<CurrencyChangeJobEntity> getActiveJob(int userId) {
+        return jobRepository.findActiveByUserId(userId);
+    }
+
+    // Finished jobs stay pollable for a while, then drop out
+    @Scheduled(fixedDelayString = "${currency.change.purge-interval-ms:600000}")
+    public void purgeFinishedJobs() {
+        jobRepository.deleteFinishedBefore(retentionMinutes);
+    }
+
+    // Keeps this instance's queued and running jobs from being failed as stale
+    @Scheduled(fixedDelayString = "${currency.change.heartbeat-interval-ms:60000}")
+    public void heartbeat() {
+        if (!heldJobIds.isEmpty()) {
+            jobRepository.heartbeat(Set.copyOf(heldJobIds));
+        }
+    }
+
+    private CurrencyChangeJobEntity claim(int userId, String fromCurrency, String toCurrency) {
+        if (jobRepository.failStale(userId, staleAfter.getSeconds()) > 0) {
+            logger.warning("Marked an abandoned currency change of user " + userId + " as failed");
+        }
+        CurrencyChangeJobEntity job = new CurrencyChangeJobEntity(UUID.randomUUID().toString(), userId, fromCurrency, toCurrency);
+        try {
+            CurrencyChangeJobEntity saved = jobRepository.saveAndFlush(job);
+            heldJobIds.add(saved.getJobId());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("A currency change is already in progress");
+        }
+    }
+
+    // Returns the error message, or null if the conversion succeeded
+    private String run(String jobId, int userId, String fromCurrency, String toCurrency) {
+        try {
+            // The job may have been failed as stale while it sat in the queue; its slot is gone then
+            if (jobRepository.markRunning(jobId) == 0) {
+                logger.warning("Currency change " + jobId + " for user " + userId + " was no longer queued");
+                return "Currency change was cancelled before it started";
+            }
+            try {
+                currencyConversionService.convertUserCurrency(userId, fromCurrency, toCurrency,
+                        (step, completedSteps, totalSteps, rowsUpdated) ->
+                                jobRepository.updateProgress(jobId, step, completedSteps, totalSteps));
+                if (jobRepository.markCompleted(jobId) == 0) {
+                    logger.warning("Currency change " + jobId + " finished after it was marked as failed");
+                }
+                return null;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Currency change " + jobId + " failed for user " + userId, e);
+                String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                jobRepository.markFailed(jobId, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                return error;
+            }
+        } finally {
+            heldJobIds.remove(jobId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+            logger.warning("Currency change jobs still running at shutdown");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package edu.cit.myalkansya.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fetches the current rate table from the upstream exchange rate API.
+ */
+@Component
+public class ExchangeRateApiClient implements ExchangeRateSource {
+
+    private static final Logger logger = Logger.getLogger(ExchangeRateApiClient.class.getName());
+
+    @Value("${currency.api.key}")
+    private String apiKey;
+
+    @Value("${currency.api.url}")
+    private String apiUrlTemplate;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public RateSnapshot fetchRates(String baseCurrency) {
+        String apiUrl = String.format(apiUrlTemplate, apiKey, baseCurrency);
+        logger.info("Fetching rates from API: " + apiUrl.replace(apiKey, "API_KEY"));
+        
+        try {
+            ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
+            String responseBody = response.getBody();
+            
+            if (responseBody == null) {
+                logger.severe("Empty response from exchange rate API");
+                throw new RuntimeException("Empty response from exchange rate API");
+            }
+            
+            logger.info("API Response received, status: " + response.getStatusCode());
+            
+            JsonNode root = objectMapper.readTree(responseBody);
+            return parseRates(baseCurrency, root);
+        } catch (JsonProcessingException e) {
+            logger.log(Level.SEVERE, "Error parsing exchange rate API response: " + e.getMessage(), e);
+            throw new RuntimeException("Error processing exchange rate data", e);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error fetching exchange rates: " + e.getMessage(), e);
+            throw new RuntimeException("Error fetching exchange rates: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rates from a response body in the API's JSON format, for the live API and
+     * for recorded responses used as fixtures.
+     */
+    public static RateSnapshot parseRates(String baseCurrency, JsonNode root) {
+        String result = root.path("result").asText();
+        
+        if ("success".equals(result)) {
+            JsonNode conversionRates = root.path("conversion_rates");
+            
+            if (conversionRates.isMissingNode()) {
+                logger.severe("Missing conversion_rates in API response");
+                throw new RuntimeException("Invalid API response format");
+            }
+            
+            Map<String, Double> rates = new HashMap<>();
+            
+            conversionRates.fields().forEachRemaining(entry -> 
+                rates.put(entry.getKey(), entry.getValue().asDouble()));
+            
+            logger.info("Successfully fetched " + rates.size() + " exchange rates for " + baseCurrency);
+            return new RateSnapshot(baseCurrency, rates);
+        } else {
+            String errorType = root.has("error-type") ? root.path("error-type").asText() : "Unknown error";
+            logger.severe("API Error: " + errorType);
+            throw new RuntimeException("API Error: " + errorType);
+        }
+    }
+
+    @Override
+    public Map<String, Object> testConnection() {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            // Format the URL without including the actual API key in logs
+            String apiUrl = String.format(apiUrlTemplate, apiKey, "USD");
+            String safeUrl = apiUrl.replace(apiKey, "API_KEY"); 
+            logger.info("Testing API connection with URL: " + safeUrl);
+            
+            ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
+            // Fixed: replaced deprecated getStatusCodeValue() with getStatusCode().value()
+            result.put("statusCode", response.getStatusCode().value());
+            
+            if (response.getBody() != null) {
+                JsonNode root = objectMapper.readTree(response.getBody());
+                String apiResult = root.path("result").asText();
+                result.put("result", apiResult);
+                
+                if ("success".equals(apiResult)) {
+                    JsonNode conversionRates = root.path("conversion_rates");
+                    int ratesCount = 0;
+                    if (!conversionRates.isMissingNode()) {
+                        ratesCount = conversionRates.size();
+                    }
+                    result.put("ratesCount", ratesCount);
+                    result.put("eurRate", conversionRates.has("EUR") ? conversionRates.path("EUR").asDouble() : "N/A");
+                    result.put("status", "success");
+                } else {
+                    result.put("status", "error");
+                    result.put("errorType", root.has("error-type") ? root.path("error-type").asText() : "Unknown");
+                }
+            } else {
+                result.put("status", "error");
+                result.put("message", "Empty response body");
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "API connection test failed: " + e.getMessage(), e);
+            result.put("status", "error");
+            result.put("message", e.getMessage());
+            result.put("exceptionType", e.getClass().getName());
+        }
+        return result;
+    }
+}
@@ -1,20 +1,21 @@
 package edu.cit.myalkansya.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
 import edu.cit.myalkansya.dto.CurrencyConversionRequest;
 import edu.cit.myalkansya.dto.CurrencyConversionResponse;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
+import edu.cit.myalkansya.money.Money;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,23 +24,34 @@ public class ExchangeRateService {
     
     private static final Logger logger = Logger.getLogger(ExchangeRateService.class.getName());
     
-    @Value("${currency.api.key}")
-    private String apiKey;
+    @Autowired
+    private RateHistoryService rateHistoryService;
     
-    @Value("${currency.api.url}")
-    private String apiUrlTemplate;
+    private final ExchangeRateSource rateSource;
     
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    // Every pair is derived from one table quoted against this currency
+    public static final String BASE_CURRENCY = "USD";
     
-    // Cache for exchange rates to reduce API calls
-    private final Map<String, Map<String, Double>> ratesCache = new HashMap<>();
-    private final Map<String, Long> cacheTimestamps = new HashMap<>();
-    private static final long CACHE_DURATION = 1000 * 60 * 60; // 1 hour
+    // Caffeine loads the table at most once at a time, so concurrent callers
+    // wait on the same fetch instead of each hitting the API
+    private final LoadingCache<String, RateSnapshot> ratesCache;
+    private static final Duration REFRESH_AFTER = Duration.ofHours(1);
+    // Upper bound for serving a stale table when refreshes keep failing
+    private static final Duration EXPIRE_AFTER = Duration.ofHours(24);
     
-    public ExchangeRateService() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    @Autowired
+    public ExchangeRateService(ExchangeRateSource rateSource) {
+        this(rateSource, Ticker.systemTicker());
+    }
+    
+    // Tests pass their own ticker to age the cached table
+    ExchangeRateService(ExchangeRateSource rateSource, Ticker ticker) {
+        this.rateSource = rateSource;
+        this.ratesCache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .refreshAfterWrite(REFRESH_AFTER)
+                .expireAfterWrite(EXPIRE_AFTER)
+                .build(rateSource::fetchRates);
     }
     
     public CurrencyConversionResponse convertCurrency(CurrencyConversionRequest request) {
@@ -59,7 +71,7 @@ public class ExchangeRateService {
             response.setToCurrency(toCurrency);
             response.setAmount(amount);
             response.setExchangeRate(exchangeRate);
-            response.setConvertedAmount(amount * exchangeRate);
+            response.setConvertedAmount(Money.convert(amount, exchangeRate));
             
             logger.info("Conversion successful: " + amount + " " + fromCurrency + 
                       " = " + response.getConvertedAmount() + " " + toCurrency);
@@ -72,271 +84,79 @@ public class ExchangeRateService {
     }
     
     public double getExchangeRate(String fromCurrency, String toCurrency) {
-        // Check if we have a cached rate that's still valid
-        String cacheKey = fromCurrency + "-" + toCurrency;
-        if (ratesCache.containsKey(fromCurrency)) {
-            Long timestamp = cacheTimestamps.get(fromCurrency);
-            if (timestamp != null && System.currentTimeMillis() - timestamp < CACHE_DURATION) {
-                Map<String, Double> rates = ratesCache.get(fromCurrency);
-                if (rates.containsKey(toCurrency)) {
-                    logger.info("Using cached exchange rate for " + cacheKey);
-                    return rates.get(toCurrency);
-                }
-            }
-        }
-        
-        // No valid cache, fetch from API
-        String apiUrl = String.format(apiUrlTemplate, apiKey, fromCurrency);
-        logger.info("Fetching exchange rate from API: " + apiUrl.replace(apiKey, "API_KEY"));
-        
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
-            String responseBody = response.getBody();
-            
-            if (responseBody == null) {
-                logger.severe("Empty response from exchange rate API");
-                throw new RuntimeException("Empty response from exchange rate API");
-            }
-            
-            logger.info("API Response received, status: " + response.getStatusCode());
-            // For debugging only, don't log full response in production
-            logger.fine("API Response body: " + responseBody);
-            
-            JsonNode root = objectMapper.readTree(responseBody);
-            String result = root.path("result").asText();
-            
-            if ("success".equals(result)) {
-                JsonNode conversionRates = root.path("conversion_rates");
-                
-                if (conversionRates.isMissingNode()) {
-                    logger.severe("Missing conversion_rates in API response");
-                    throw new RuntimeException("Invalid API response format");
-                }
-                
-                if (!conversionRates.has(toCurrency)) {
-                    logger.severe("Target currency not found in response: " + toCurrency);
-                    throw new RuntimeException("Currency not supported: " + toCurrency);
-                }
-                
-                double rate = conversionRates.path(toCurrency).asDouble();
-                
-                // Update cache
-                Map<String, Double> rates = ratesCache.computeIfAbsent(fromCurrency, k -> new HashMap<>());
-                rates.put(toCurrency, rate);
-                cacheTimestamps.put(fromCurrency, System.currentTimeMillis());
-                
-                logger.info("Successfully got rate: 1 " + fromCurrency + " = " + rate + " " + toCurrency);
-                return rate;
-            } else {
-                String errorType = root.has("error-type") ? root.path("error-type").asText() : "Unknown error";
-                logger.severe("API Error: " + errorType);
-                throw new RuntimeException("API Error: " + errorType);
-            }
-        } catch (JsonProcessingException e) {
-            logger.log(Level.SEVERE, "Error parsing exchange rate API response: " + e.getMessage(), e);
-            throw new RuntimeException("Error processing exchange rate data", e);
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error fetching exchange rates: " + e.getMessage(), e);
-            throw new RuntimeException("Error fetching exchange rates: " + e.getMessage(), e);
-        }
+        return getSnapshot().rate(fromCurrency.toUpperCase(), toCurrency.toUpperCase());
     }
     
     public Map<String, Double> getAllRatesForCurrency(String baseCurrency) {
-        baseCurrency = baseCurrency.toUpperCase();
-        logger.info("Getting all rates for currency: " + baseCurrency);
-        
-        // Check cache first
-        if (ratesCache.containsKey(baseCurrency)) {
-            Long timestamp = cacheTimestamps.get(baseCurrency);
-            if (timestamp != null && System.currentTimeMillis() - timestamp < CACHE_DURATION) {
-                logger.info("Using cached exchange rates for " + baseCurrency);
-                return ratesCache.get(baseCurrency);
-            }
-        }
-        
-        // No valid cache, fetch from API
-        String apiUrl = String.format(apiUrlTemplate, apiKey, baseCurrency);
-        logger.info("Fetching rates from API: " + apiUrl.replace(apiKey, "API_KEY"));
-        
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
-            String responseBody = response.getBody();
-            
-            if (responseBody == null) {
-                logger.severe("Empty response from exchange rate API");
-                throw new RuntimeException("Empty response from exchange rate API");
-            }
-            
-            logger.info("API Response received, status: " + response.getStatusCode());
-            
-            JsonNode root = objectMapper.readTree(responseBody);
-            String result = root.path("result").asText();
-            
-            if ("success".equals(result)) {
-                JsonNode conversionRates = root.path("conversion_rates");
-                
-                if (conversionRates.isMissingNode()) {
-                    logger.severe("Missing conversion_rates in API response");
-                    throw new RuntimeException("Invalid API response format");
-                }
-                
-                Map<String, Double> rates = new HashMap<>();
-                
-                conversionRates.fields().forEachRemaining(entry -> 
-                    rates.put(entry.getKey(), entry.getValue().asDouble()));
-                
-                // Update cache
-                ratesCache.put(baseCurrency, rates);
-                cacheTimestamps.put(baseCurrency, System.currentTimeMillis());
-                
-                logger.info("Successfully fetched " + rates.size() + " exchange rates for " + baseCurrency);
-                return rates;
-            } else {
-                String errorType = root.has("error-type") ? root.path("error-type").asText() : "Unknown error";
-                logger.severe("API Error: " + errorType);
-                throw new RuntimeException("API Error: " + errorType);
-            }
-        } catch (JsonProcessingException e) {
-            logger.log(Level.SEVERE, "Error parsing exchange rate API response: " + e.getMessage(), e);
-            throw new RuntimeException("Error processing exchange rate data", e);
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error fetching exchange rates: " + e.getMessage(), e);
-            throw new RuntimeException("Error fetching exchange rates: " + e.getMessage(), e);
-        }
+        return getSnapshot().ratesFrom(baseCurrency.toUpperCase());
+    }
+    
+    // After the refresh interval the current snapshot keeps being served while it reloads in the background
+    public RateSnapshot getSnapshot() {
+        return ratesCache.get(BASE_CURRENCY);
     }
     
-    // Add a test endpoint method to verify API connectivity
     public Map<String, Object> testApiConnection() {
-        Map<String, Object> result = new HashMap<>();
-        try {
-            // Format the URL without including the actual API key in logs
-            String apiUrl = String.format(apiUrlTemplate, apiKey, "USD");
-            String safeUrl = apiUrl.replace(apiKey, "API_KEY"); 
-            logger.info("Testing API connection with URL: " + safeUrl);
-            
-            ResponseEntity<String> response = restTemplate.getForEntity(apiUrl, String.class);
-            // Fixed: replaced deprecated getStatusCodeValue() with getStatusCode().value()
-            result.put("statusCode", response.getStatusCode().value());
-            
-            if (response.getBody() != null) {
-                JsonNode root = objectMapper.readTree(response.getBody());
-                String apiResult = root.path("result").asText();
-                result.put("result", apiResult);
-                
-                if ("success".equals(apiResult)) {
-                    JsonNode conversionRates = root.path("conversion_rates");
-                    int ratesCount = 0;
-                    if (!conversionRates.isMissingNode()) {
-                        ratesCount = conversionRates.size();
-                    }
-                    result.put("ratesCount", ratesCount);
-                    result.put("eurRate", conversionRates.has("EUR") ? conversionRates.path("EUR").asDouble() : "N/A");
-                    result.put("status", "success");
-                } else {
-                    result.put("status", "error");
-                    result.put("errorType", root.has("error-type") ? root.path("error-type").asText() : "Unknown");
-                }
-            } else {
-                result.put("status", "error");
-                result.put("message", "Empty response body");
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "API connection test failed: " + e.getMessage(), e);
-            result.put("status", "error");
-            result.put("message", e.getMessage());
-            result.put("exceptionType", e.getClass().getName());
-        }
-        return result;
+        return rateSource.testConnection();
     }
     
-    public Map<String, Double> getHistoricalRatesOrEstimate(String baseCurrency) {
-        // For a real implementation, you would fetch historical data from an API that supports it
-        // Since we're using a basic Exchange Rate API, we'll simulate historical data
-        // In a production app, you would store historical rates in your database
-        
-        Map<String, Double> currentRates = getAllRatesForCurrency(baseCurrency);
-        Map<String, Double> simulatedHistoricalRates = new HashMap<>();
-        
-        // Create simulated historical rates (random variations within a small range)
-        Random random = new Random(System.currentTimeMillis());
-        for (Map.Entry<String, Double> entry : currentRates.entrySet()) {
-            // Random change between -3% and +3%
-            double changePercent = (random.nextDouble() * 6) - 3;
-            double historicalRate = entry.getValue() * (1 - (changePercent / 100));
-            simulatedHistoricalRates.put(entry.getKey(), historicalRate);
-        }
-        
-        return simulatedHistoricalRates;
+    // Rates quoted against baseCurrency as stored the given number of days ago, empty if no history exists yet
+    public Map<String, Double> getHistoricalRates(String baseCurrency, int daysAgo) {
+        String base = baseCurrency.toUpperCase();
+        return rateHistoryService.getRatesOn(LocalDate.now().minusDays(daysAgo))
+                .map(RateHistoryService.DailyRates::getSnapshot)
+                .filter(snapshot -> snapshot.supports(base))
+                .map(snapshot -> snapshot.ratesFrom(base))
+                .orElse(Collections.emptyMap());
     }
     
     /**
      * Get historical trends for a specific currency pair
      */
     public Map<String, Object> getCurrencyTrends(String fromCurrency, String toCurrency) {
+        String from = fromCurrency.toUpperCase();
+        String to = toCurrency.toUpperCase();
         Map<String, Object> trends = new HashMap<>();
         
         // Current rate
-        double currentRate = getExchangeRate(fromCurrency, toCurrency);
+        double currentRate = getExchangeRate(from, to);
         trends.put("currentRate", currentRate);
         
-        // Get simulated historical data for different periods
-        trends.put("7days", getHistoricalTrend(fromCurrency, toCurrency, 7));
-        trends.put("30days", getHistoricalTrend(fromCurrency, toCurrency, 30));
-        trends.put("90days", getHistoricalTrend(fromCurrency, toCurrency, 90));
+        // One range read covers all three windows
+        LocalDate today = LocalDate.now();
+        List<RateHistoryService.DailyRates> history = rateHistoryService.getDailyRates(today.minusDays(90), today);
+        
+        trends.put("7days", getHistoricalTrend(history, from, to, currentRate, today.minusDays(7)));
+        trends.put("30days", getHistoricalTrend(history, from, to, currentRate, today.minusDays(30)));
+        trends.put("90days", getHistoricalTrend(history, from, to, currentRate, today.minusDays(90)));
         
         return trends;
     }
     
     /**
-     * Simulate historical trend data for a specific time period
+     * Trend of a pair since startDate from the stored daily tables, oldest point first
      */
-    private Map<String, Object> getHistoricalTrend(String fromCurrency, String toCurrency, int days) {
-        // In a real application, you would fetch this from a database where you store historical rates
-        // For demo purposes, we'll simulate some realistic trends
-        
-        double currentRate = getExchangeRate(fromCurrency, toCurrency);
-        Random random = new Random(fromCurrency.hashCode() + toCurrency.hashCode() + days);
-        
-        // Different volatility based on time period (longer period = potentially more movement)
-        double volatility;
-        switch (days) {
-            case 7:
-                volatility = 0.5; // 0.5% typical weekly volatility
-                break;
-            case 30:
-                volatility = 1.2; // 1.2% typical monthly volatility
-                break;
-            case 90:
-                volatility = 2.5; // 2.5% typical quarterly volatility
-                break;
-            default:
-                volatility = 1.0;
-        }
-        
-        // Add some currency-specific volatility adjustment
-        if (toCurrency.equals("BTC") || fromCurrency.equals("BTC")) {
-            volatility *= 5; // Crypto is more volatile
-        } else if (toCurrency.equals("JPY") || fromCurrency.equals("JPY") ||
-                   toCurrency.equals("EUR") || fromCurrency.equals("EUR")) {
-            volatility *= 0.8; // Major currencies tend to be less volatile
+    private Map<String, Object> getHistoricalTrend(List<RateHistoryService.DailyRates> history,
+                                                   String fromCurrency, String toCurrency,
+                                                   double currentRate, LocalDate startDate) {
+        List<Double> trendPoints = new ArrayList<>();
+        LocalDate lastDate = null;
+        for (RateHistoryService.DailyRates day : history) {
+            RateSnapshot snapshot = day.getSnapshot();
+            if (day.getDate().isBefore(startDate)
+                    || !snapshot.supports(fromCurrency) || !snapshot.supports(toCurrency)) {
+                continue;
+            }
+            trendPoints.add(Math.round(snapshot.rate(fromCurrency, toCurrency) * 10000) / 10000.0); // Round to 4 decimal places
+            lastDate = day.getDate();
         }
         
-        // Generate a somewhat realistic change percentage
-        double changePercent = (random.nextDouble() * 2 - 1) * volatility;
-        
-        // Calculate historical rate based on the change percentage
-        double historicalRate = currentRate / (1 + (changePercent / 100));
-        
-        // Also generate some intermittent points for a mini chart
-        List<Double> trendPoints = new ArrayList<>();
-        for (int i = days; i >= 0; i--) {
-            // Create somewhat correlated movements (not just random)
-            double progress = (double) i / days;
-            double randomFactor = random.nextDouble() * 0.4 - 0.2; // Random noise ±0.2
-            double pointRate = historicalRate + (currentRate - historicalRate) * progress + 
-                              (currentRate * randomFactor * volatility / 100);
-            trendPoints.add(Math.round(pointRate * 10000) / 10000.0); // Round to 4 decimal places
+        // Without history for the window there is no change to report
+        double historicalRate = trendPoints.isEmpty() ? currentRate : trendPoints.get(0);
+        if (lastDate == null || lastDate.isBefore(LocalDate.now())) {
+            trendPoints.add(Math.round(currentRate * 10000) / 10000.0);
         }
+        double changePercent = ((currentRate - historicalRate) / historicalRate) * 100;
         
         Map<String, Object> trend = new HashMap<>();
         trend.put("historicalRate", historicalRate);
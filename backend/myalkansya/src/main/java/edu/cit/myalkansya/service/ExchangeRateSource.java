@@ -0,0 +1,15 @@
+package edu.cit.myalkansya.service;
+
+import java.util.Map;
+
+/**
+ * Where the current exchange rate table comes from: the upstream API in
+ * production, a recorded fixture in tests.
+ */
+public interface ExchangeRateSource {
+
+    RateSnapshot fetchRates(String baseCurrency);
+
+    // Diagnostic details for the /api/currency/test endpoint
+    Map<String, Object> testConnection();
+}
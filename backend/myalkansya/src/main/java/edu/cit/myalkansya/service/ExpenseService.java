@@ -1,5 +1,6 @@
 package edu.cit.myalkansya.service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -8,9 +9,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import edu.cit.myalkansya.dto.CursorPageDTO;
+import edu.cit.myalkansya.dto.ExpenseView;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity.EntryType;
 import edu.cit.myalkansya.entity.BudgetEntity;
 import edu.cit.myalkansya.entity.ExpenseEntity;
 import edu.cit.myalkansya.entity.UserEntity;
+import edu.cit.myalkansya.money.Money;
 import edu.cit.myalkansya.repository.BudgetRepository;
 import edu.cit.myalkansya.repository.ExpenseRepository;
 import edu.cit.myalkansya.repository.UserRepository;
@@ -18,6 +23,8 @@ import edu.cit.myalkansya.repository.UserRepository;
 @Service
 public class ExpenseService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private ExpenseRepository expenseRepository;
     
@@ -26,6 +33,18 @@ public class ExpenseService {
     
     @Autowired
     private BudgetRepository budgetRepository;
+    
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+    
+    @Autowired
+    private CurrencyBalanceService currencyBalanceService;
+    
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+    
+    @Autowired
+    private BudgetIndexService budgetIndexService;
 
     // CREATE - Fixed to prevent duplicate expense creation
     @Transactional
@@ -34,26 +53,15 @@ public class ExpenseService {
                 .orElseThrow(() -> new NoSuchElementException("User with ID " + userId + " not found."));
         expense.setUser(user);
         
-        // Save the expense first to get an ID
+        // Link the expense to its month's budget before the insert, so the row is written once
+        linkToBudget(expense, userId);
         ExpenseEntity savedExpense = expenseRepository.save(expense);
         
-        // Find if there's an existing budget for this category
-        Optional<BudgetEntity> budgetOpt = budgetRepository.findFirstByUserUserIdAndCategory(userId, expense.getCategory());
-        if (budgetOpt.isPresent()) {
-            BudgetEntity budget = budgetOpt.get();
-            
-            // Simply update the budget's total spent and link the expense
-            budget.setTotalSpent(budget.getTotalSpent() + expense.getAmount());
-            savedExpense.setBudget(budget);
-            
-            // Update the budget and expense relationship
-            budgetRepository.save(budget);
-            // No need to save expense again as relationship is set
-        }
+        // Subtract the expense from the user's total savings
+        balanceLedgerService.record(userId, -savedExpense.getAmount(), EntryType.EXPENSE, savedExpense.getId());
         
-        // Update user's total savings by subtracting the expense amount
-        user.setTotalSavings(user.getTotalSavings() - expense.getAmount());
-        userRepository.save(user);
+        monthlyRollupService.recordExpense(userId, savedExpense.getDate(), savedExpense.getCategory(), savedExpense.getAmount());
+        currencyBalanceService.recordExpense(userId, savedExpense.getCurrency(), savedExpense.getAmount());
         
         return savedExpense;
     }
@@ -63,19 +71,32 @@ public class ExpenseService {
         return expenseRepository.findAll();
     }
     
-    public List<ExpenseEntity> getExpensesByUserId(int userId) {
-        return expenseRepository.findByUserUserId(userId);
+    public List<ExpenseView> getExpensesByUserId(int userId) {
+        return expenseRepository.findViewsByUserId(userId);
+    }
+
+    // Keyset-paginated read, newest first with undated rows last; date filters apply only when given
+    public CursorPageDTO<ExpenseView> getExpensesPage(int userId, String cursor, int limit,
+                                                 LocalDate from, LocalDate to, String category) {
+        return TransactionPages.fetch(cursor, limit, MAX_PAGE_SIZE, (position, pageable) ->
+                expenseRepository.findPage(userId, from, to, category,
+                        position.getDate(), position.getId(), pageable));
     }
 
     // New method to get expenses by category and user ID
-    public List<ExpenseEntity> getExpensesByCategoryAndUserId(String category, int userId) {
-        return expenseRepository.findByUserUserIdAndCategory(userId, category);
+    public List<ExpenseView> getExpensesByCategoryAndUserId(String category, int userId) {
+        return expenseRepository.findViewsByUserIdAndCategory(userId, category);
     }
 
     public ExpenseEntity getExpenseById(int expenseId) {
         return expenseRepository.findById(expenseId)
                 .orElseThrow(() -> new NoSuchElementException("Expense with ID " + expenseId + " not found."));
     }
+
+    // Ownership is part of the query, so an empty result covers both missing and foreign expenses
+    public Optional<ExpenseView> getExpenseView(int expenseId, int userId) {
+        return expenseRepository.findViewByIdAndUserId(expenseId, userId);
+    }
     
     // Verify expense belongs to user
     public boolean expenseExistsAndBelongsToUser(int expenseId, int userId) {
@@ -84,8 +105,8 @@ public class ExpenseService {
     }
 
     // New method to get expenses by user ID, category, and subject
-    public List<ExpenseEntity> findByUserAndCategoryAndSubject(int userId, String category, String subject) {
-        return expenseRepository.findByUserUserIdAndCategoryAndSubject(userId, category, subject);
+    public List<ExpenseView> findByUserAndCategoryAndSubject(int userId, String category, String subject) {
+        return expenseRepository.findViewsByUserIdAndCategoryAndSubject(userId, category, subject);
     }
 
     // UPDATE
@@ -96,46 +117,21 @@ public class ExpenseService {
         }
         
         ExpenseEntity existingExpense = expenseRepository.findById(expenseId).get();
-        UserEntity user = existingExpense.getUser();
         
-        // Store old amount and category for budget updates
+        // Store old amount, category, date and currency for budget, rollup and balance updates
         double oldAmount = existingExpense.getAmount();
         String oldCategory = existingExpense.getCategory();
+        LocalDate oldDate = existingExpense.getDate();
+        String oldCurrency = existingExpense.getCurrency();
         
         // Calculate the difference between old and new amounts for user total savings
-        double amountDifference = newExpenseDetails.getAmount() - oldAmount;
-        
-        // Check if the category changed
-        boolean categoryChanged = !oldCategory.equals(newExpenseDetails.getCategory());
-        
-        // Handle budget updates
-        if (categoryChanged) {
-            // Category changed, handle both old and new budgets
-            
-            // Handle old budget (remove expense from old budget)
-            if (existingExpense.getBudget() != null) {
-                BudgetEntity oldBudget = existingExpense.getBudget();
-                oldBudget.setTotalSpent(oldBudget.getTotalSpent() - oldAmount);
-                existingExpense.setBudget(null);
-                budgetRepository.save(oldBudget);
-            }
-            
-            // Handle new budget (add expense to new budget)
-            Optional<BudgetEntity> newBudgetOpt = budgetRepository.findFirstByUserUserIdAndCategory(userId, newExpenseDetails.getCategory());
-            if (newBudgetOpt.isPresent()) {
-                BudgetEntity newBudget = newBudgetOpt.get();
-                existingExpense.setBudget(newBudget);
-                newBudget.setTotalSpent(newBudget.getTotalSpent() + newExpenseDetails.getAmount());
-                budgetRepository.save(newBudget);
-            } else {
-                // No budget exists for this category, leave unassociated
-                existingExpense.setBudget(null);
-            }
-        } else if (existingExpense.getBudget() != null) {
-            // Category didn't change, just update the amount in the existing budget
-            BudgetEntity budget = existingExpense.getBudget();
-            budget.setTotalSpent(budget.getTotalSpent() - oldAmount + newExpenseDetails.getAmount());
-            budgetRepository.save(budget);
+        double amountDifference = Money.toMajorUnits(
+                Money.toMinorUnits(newExpenseDetails.getAmount()) - Money.toMinorUnits(oldAmount));
+        
+        // Take the old amount off the old budget, then attribute the new details to their month's budget
+        BudgetEntity oldBudget = existingExpense.getBudget();
+        if (oldBudget != null) {
+            budgetRepository.addToTotalSpent(oldBudget.getId(), -oldAmount);
         }
         
         // Update expense details
@@ -144,13 +140,19 @@ public class ExpenseService {
         existingExpense.setDate(newExpenseDetails.getDate());
         existingExpense.setAmount(newExpenseDetails.getAmount());
         existingExpense.setCurrency(newExpenseDetails.getCurrency());
+        linkToBudget(existingExpense, userId);
         
         // Save the updated expense
         ExpenseEntity updatedExpense = expenseRepository.save(existingExpense);
         
         // Update user's total savings based on the amount difference
-        user.setTotalSavings(user.getTotalSavings() - amountDifference);
-        userRepository.save(user);
+        balanceLedgerService.record(userId, -amountDifference, EntryType.EXPENSE_ADJUSTMENT, expenseId);
+        
+        // Move the expense from its old rollup bucket to the new one
+        monthlyRollupService.removeExpense(userId, oldDate, oldCategory, oldAmount);
+        monthlyRollupService.recordExpense(userId, updatedExpense.getDate(), updatedExpense.getCategory(), updatedExpense.getAmount());
+        currencyBalanceService.removeExpense(userId, oldCurrency, oldAmount);
+        currencyBalanceService.recordExpense(userId, updatedExpense.getCurrency(), updatedExpense.getAmount());
         
         return updatedExpense;
     }
@@ -162,25 +164,53 @@ public class ExpenseService {
             return "Expense with ID " + expenseId + " not found for user with ID " + userId;
         }
         
-        // Get the expense and user before deletion
+        // Get the expense before deletion
         ExpenseEntity expense = expenseRepository.findById(expenseId).get();
-        UserEntity user = expense.getUser();
         double amountToAdd = expense.getAmount();
         
         // Update budget if associated
         if (expense.getBudget() != null) {
-            BudgetEntity budget = expense.getBudget();
-            budget.setTotalSpent(budget.getTotalSpent() - amountToAdd);
-            budgetRepository.save(budget);
+            budgetRepository.addToTotalSpent(expense.getBudget().getId(), -amountToAdd);
         }
         
         // Delete the expense
         expenseRepository.deleteById(expenseId);
         
         // Update user's total savings by adding back the deleted expense amount
-        user.setTotalSavings(user.getTotalSavings() + amountToAdd);
-        userRepository.save(user);
+        balanceLedgerService.record(userId, amountToAdd, EntryType.EXPENSE_REVERSAL, expenseId);
+        
+        monthlyRollupService.removeExpense(userId, expense.getDate(), expense.getCategory(), amountToAdd);
+        currencyBalanceService.removeExpense(userId, expense.getCurrency(), amountToAdd);
         
         return "Expense with ID " + expenseId + " successfully deleted.";
     }
-}
\ No newline at end of file
+    
+    /**
+     * Attribute an expense to the budget for its category and month, adding its
+     * amount to totalSpent with one UPDATE. The UPDATE also matches the owner,
+     * category and month, so an id from a stale cached index changes nothing;
+     * the index is then reloaded once.
+     */
+    private void linkToBudget(ExpenseEntity expense, int userId) {
+        expense.setBudget(null);
+        if (expense.getDate() == null || expense.getCategory() == null) {
+            return;
+        }
+        Optional<Integer> budgetId = budgetIndexService.findBudgetId(userId, expense.getCategory(), expense.getDate());
+        if (budgetId.isPresent() && !addToBudget(budgetId.get(), expense, userId)) {
+            budgetIndexService.invalidate(userId);
+            budgetId = budgetIndexService.findBudgetId(userId, expense.getCategory(), expense.getDate());
+            if (budgetId.isPresent() && !addToBudget(budgetId.get(), expense, userId)) {
+                budgetId = Optional.empty();
+            }
+        }
+        // The UPDATE already proved the budget exists, so a reference is enough to set the link
+        budgetId.map(budgetRepository::getReferenceById).ifPresent(expense::setBudget);
+    }
+
+    private boolean addToBudget(int budgetId, ExpenseEntity expense, int userId) {
+        LocalDate date = expense.getDate();
+        return budgetRepository.addToMatchingBudget(budgetId, userId, expense.getCategory(),
+                date.getYear(), date.getMonthValue(), expense.getAmount()) == 1;
+    }
+}
@@ -0,0 +1,115 @@
+package edu.cit.myalkansya.service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Decodes uploaded images and renders the fixed-size square JPEG thumbnails
+ * that are kept for profile pictures.
+ */
+final class ImageThumbnails {
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private ImageThumbnails() {
+    }
+
+    /**
+     * Decode an image, checking its dimensions from the header first so an
+     * oversized image is rejected before its pixels are allocated. Large
+     * images are subsampled while decoding, keeping the short side at least
+     * twice {@code targetSize} so only a small raster is ever held in memory.
+     */
+    static BufferedImage read(InputStream content, long maxPixels, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            if (input == null) {
+                throw new IllegalArgumentException("Unsupported image");
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new IllegalArgumentException("Image dimensions are too large");
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = subsamplingFor(width, height, targetSize);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static int subsamplingFor(int width, int height, int targetSize) {
+        return Math.max(1, Math.min(width, height) / (2 * Math.max(1, targetSize)));
+    }
+
+    // Centre-cropped square of the given size, never upscaled past the source
+    static byte[] render(BufferedImage source, int size) throws IOException {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = source.getSubimage(
+                (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        int target = Math.min(size, side);
+
+        // Halving in steps keeps bilinear scaling from dropping detail on large reductions
+        int currentSize = side;
+        do {
+            currentSize = Math.max(currentSize / 2, target);
+            current = scale(current, currentSize);
+        } while (currentSize > target);
+
+        return encodeJpeg(current);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        // RGB canvas on white so transparent images encode cleanly as JPEG
+        BufferedImage scaled = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size, size);
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, size, size, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+package edu.cit.myalkansya.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads an import body one line at a time, so memory use does not grow with
+ * the upload. CSV needs a header row and does not allow line breaks inside
+ * quoted fields. NDJSON takes one JSON object per line. Field names are
+ * lower-cased in both formats.
+ */
+class ImportRowReader {
+
+    enum Format { CSV, NDJSON }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private List<String> header;
+    private int lineNumber;
+
+    ImportRowReader(InputStream body, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    static Format formatOf(String contentType) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/csv")) {
+                return Format.CSV;
+            }
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return Format.NDJSON;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import content type: " + contentType);
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    // Next row keyed by field name, or null at the end of the body
+    Map<String, String> next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(line);
+            }
+            if (header == null) {
+                header = new ArrayList<>();
+                for (String name : splitCsv(line)) {
+                    header.add(name.trim().toLowerCase(Locale.ROOT));
+                }
+                continue;
+            }
+            return toRow(splitCsv(line));
+        }
+        return null;
+    }
+
+    private Map<String, String> parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid JSON");
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected a JSON object");
+        }
+        Map<String, String> row = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!field.getValue().isNull()) {
+                row.put(field.getKey().toLowerCase(Locale.ROOT), field.getValue().asText());
+            }
+        }
+        return row;
+    }
+
+    private Map<String, String> toRow(List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": more values than header columns");
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            row.put(header.get(i), values.get(i));
+        }
+        return row;
+    }
+
+    // RFC 4180 quoting within a single line: "a ""quoted"" value",plain
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
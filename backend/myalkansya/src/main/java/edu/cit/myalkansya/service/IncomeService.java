@@ -1,25 +1,42 @@
 package edu.cit.myalkansya.service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import edu.cit.myalkansya.dto.CursorPageDTO;
+import edu.cit.myalkansya.dto.IncomeView;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity.EntryType;
 import edu.cit.myalkansya.entity.IncomeEntity;
 import edu.cit.myalkansya.entity.UserEntity;
+import edu.cit.myalkansya.money.Money;
 import edu.cit.myalkansya.repository.IncomeRepository;
 import edu.cit.myalkansya.repository.UserRepository;
 
 @Service
 public class IncomeService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private IncomeRepository incomeRepository;
     
     @Autowired
     private UserRepository userRepository;
+    
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+    
+    @Autowired
+    private CurrencyBalanceService currencyBalanceService;
+    
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
 
     // CREATE
     @Transactional
@@ -46,8 +63,10 @@ public class IncomeService {
         IncomeEntity savedIncome = incomeRepository.save(income);
         
         // Update user's total savings by adding the income amount
-        user.setTotalSavings(user.getTotalSavings() + income.getAmount());
-        userRepository.save(user);
+        balanceLedgerService.record(userId, savedIncome.getAmount(), EntryType.INCOME, savedIncome.getId());
+        
+        monthlyRollupService.recordIncome(userId, savedIncome.getDate(), savedIncome.getAmount());
+        currencyBalanceService.recordIncome(userId, savedIncome.getCurrency(), savedIncome.getAmount());
         
         return savedIncome;
     }
@@ -57,14 +76,27 @@ public class IncomeService {
         return incomeRepository.findAll();
     }
     
-    public List<IncomeEntity> getIncomesByUserId(int userId) {
-        return incomeRepository.findByUserUserId(userId);
+    public List<IncomeView> getIncomesByUserId(int userId) {
+        return incomeRepository.findViewsByUserId(userId);
+    }
+
+    // Keyset-paginated read, newest first with undated rows last; date filters apply only when given
+    public CursorPageDTO<IncomeView> getIncomesPage(int userId, String cursor, int limit,
+                                               LocalDate from, LocalDate to, String source) {
+        return TransactionPages.fetch(cursor, limit, MAX_PAGE_SIZE, (position, pageable) ->
+                incomeRepository.findPage(userId, from, to, source,
+                        position.getDate(), position.getId(), pageable));
     }
 
     public IncomeEntity getIncomeById(int incomeId) {
         return incomeRepository.findById(incomeId)
                 .orElseThrow(() -> new NoSuchElementException("Income with ID " + incomeId + " not found."));
     }
+
+    // Ownership is part of the query, so an empty result covers both missing and foreign incomes
+    public Optional<IncomeView> getIncomeView(int incomeId, int userId) {
+        return incomeRepository.findViewByIdAndUserId(incomeId, userId);
+    }
     
     // Verify income belongs to user
     public boolean incomeExistsAndBelongsToUser(int incomeId, int userId) {
@@ -80,10 +112,15 @@ public class IncomeService {
         }
         
         IncomeEntity existingIncome = incomeRepository.findById(incomeId).get();
-        UserEntity user = existingIncome.getUser();
+        
+        // Keep the old values for the rollup and balance updates
+        double oldAmount = existingIncome.getAmount();
+        LocalDate oldDate = existingIncome.getDate();
+        String oldCurrency = existingIncome.getCurrency();
         
         // Calculate the difference between old and new amounts
-        double amountDifference = newIncomeDetails.getAmount() - existingIncome.getAmount();
+        double amountDifference = Money.toMajorUnits(
+                Money.toMinorUnits(newIncomeDetails.getAmount()) - Money.toMinorUnits(oldAmount));
         
         // Update income details
         existingIncome.setSource(newIncomeDetails.getSource());
@@ -95,8 +132,12 @@ public class IncomeService {
         IncomeEntity updatedIncome = incomeRepository.save(existingIncome);
         
         // Update user's total savings based on the amount difference
-        user.setTotalSavings(user.getTotalSavings() + amountDifference);
-        userRepository.save(user);
+        balanceLedgerService.record(userId, amountDifference, EntryType.INCOME_ADJUSTMENT, incomeId);
+        
+        monthlyRollupService.removeIncome(userId, oldDate, oldAmount);
+        monthlyRollupService.recordIncome(userId, updatedIncome.getDate(), updatedIncome.getAmount());
+        currencyBalanceService.removeIncome(userId, oldCurrency, oldAmount);
+        currencyBalanceService.recordIncome(userId, updatedIncome.getCurrency(), updatedIncome.getAmount());
         
         return updatedIncome;
     }
@@ -108,17 +149,18 @@ public class IncomeService {
             return "Income with ID " + incomeId + " not found for user with ID " + userId;
         }
         
-        // Get the income and user before deletion
+        // Get the income before deletion
         IncomeEntity income = incomeRepository.findById(incomeId).get();
-        UserEntity user = income.getUser();
         double amountToSubtract = income.getAmount();
         
         // Delete the income
         incomeRepository.deleteById(incomeId);
         
         // Update user's total savings by subtracting the deleted income amount
-        user.setTotalSavings(user.getTotalSavings() - amountToSubtract);
-        userRepository.save(user);
+        balanceLedgerService.record(userId, -amountToSubtract, EntryType.INCOME_REVERSAL, incomeId);
+        
+        monthlyRollupService.removeIncome(userId, income.getDate(), amountToSubtract);
+        currencyBalanceService.removeIncome(userId, income.getCurrency(), amountToSubtract);
         
         return "Income with ID " + incomeId + " successfully deleted.";
     }
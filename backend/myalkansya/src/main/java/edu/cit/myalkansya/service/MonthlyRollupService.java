@@ -0,0 +1,83 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.entity.MonthlyRollupEntity;
+import edu.cit.myalkansya.repository.MonthlyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the monthly_rollups table in step with incomes and expenses.
+ * The record/remove methods are meant to be called from inside the
+ * transaction that writes the underlying row.
+ */
+@Service
+public class MonthlyRollupService {
+
+    private static final Logger logger = Logger.getLogger(MonthlyRollupService.class.getName());
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Transactional
+    public void recordExpense(int userId, LocalDate date, String category, double amount) {
+        applyExpense(userId, date, category, amount, 1);
+    }
+
+    @Transactional
+    public void removeExpense(int userId, LocalDate date, String category, double amount) {
+        applyExpense(userId, date, category, -amount, -1);
+    }
+
+    @Transactional
+    public void recordIncome(int userId, LocalDate date, double amount) {
+        applyIncome(userId, date, amount, 1);
+    }
+
+    @Transactional
+    public void removeIncome(int userId, LocalDate date, double amount) {
+        applyIncome(userId, date, -amount, -1);
+    }
+
+    // Totals of several expenses in one month and category, e.g. from a bulk import batch
+    @Transactional
+    public void recordExpenses(int userId, LocalDate date, String category, double amount, int count) {
+        applyExpense(userId, date, category, amount, count);
+    }
+
+    @Transactional
+    public void recordIncomes(int userId, LocalDate date, double amount, int count) {
+        applyIncome(userId, date, amount, count);
+    }
+
+    /**
+     * Recompute every rollup row of a user from the transaction tables.
+     * Used after bulk rewrites such as a currency change; the initial backfill is migration V7.
+     */
+    @Transactional
+    public void rebuildForUser(int userId) {
+        monthlyRollupRepository.deleteByUserId(userId);
+        monthlyRollupRepository.insertExpenseRollups(userId);
+        monthlyRollupRepository.insertIncomeRollups(userId);
+        logger.fine("Rebuilt monthly rollups for user " + userId);
+    }
+
+    private void applyExpense(int userId, LocalDate date, String category, double amountDelta, int countDelta) {
+        if (date == null) {
+            return;
+        }
+        monthlyRollupRepository.addDelta(userId, date.getYear(), date.getMonthValue(),
+                MonthlyRollupEntity.Kind.EXPENSE.name(), category != null ? category : "", 0, amountDelta, 0, countDelta);
+    }
+
+    private void applyIncome(int userId, LocalDate date, double amountDelta, int countDelta) {
+        if (date == null) {
+            return;
+        }
+        monthlyRollupRepository.addDelta(userId, date.getYear(), date.getMonthValue(),
+                MonthlyRollupEntity.Kind.INCOME.name(), "", amountDelta, 0, countDelta, 0);
+    }
+}
@@ -0,0 +1,129 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.dto.ProfilePictureResultDTO;
+import edu.cit.myalkansya.entity.ProfileImageRenditionEntity;
+import edu.cit.myalkansya.repository.ProfileImageRenditionRepository;
+import edu.cit.myalkansya.storage.BlobStore;
+import edu.cit.myalkansya.storage.StoredBlob;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Profile pictures. Uploads are re-encoded into fixed-size square thumbnails
+ * that are committed to the profile_image_renditions outbox before the request
+ * returns, so every instance can serve them at once from their local URL.
+ * {@link edu.cit.myalkansya.job.ProfileImagePushJob} then pushes them to
+ * Cloudinary and moves users onto the CDN URL; the original upload is not
+ * kept. Images written by older versions are still served from the
+ * {@link BlobStore}.
+ */
+@Service
+public class ProfileImageService {
+
+    public static final String URL_PREFIX = "/api/users/profile-pictures/";
+
+    private final BlobStore blobStore;
+    private final ProfileImageRenditionRepository renditionRepository;
+    private final long maxUploadBytes;
+    private final long maxPixels;
+    private final int pictureSize;
+    private final int thumbnailSize;
+
+    // Recently served renditions, bounded by total size rather than entry count
+    private final Cache<String, ProfileImageRenditionEntity> hotImages;
+    private final long maxCachedImageBytes;
+
+    public ProfileImageService(BlobStore blobStore,
+                               ProfileImageRenditionRepository renditionRepository,
+                               @Value("${profile-images.max-upload-bytes:5242880}") long maxUploadBytes,
+                               @Value("${profile-images.max-pixels:24000000}") long maxPixels,
+                               @Value("${profile-images.picture-size:256}") int pictureSize,
+                               @Value("${profile-images.thumbnail-size:64}") int thumbnailSize,
+                               @Value("${profile-images.memory-cache.max-bytes:16777216}") long cacheMaxBytes,
+                               @Value("${profile-images.memory-cache.max-image-bytes:131072}") long maxCachedImageBytes) {
+        this.blobStore = blobStore;
+        this.renditionRepository = renditionRepository;
+        this.maxUploadBytes = maxUploadBytes;
+        this.maxPixels = maxPixels;
+        this.pictureSize = pictureSize;
+        this.thumbnailSize = thumbnailSize;
+        this.maxCachedImageBytes = maxCachedImageBytes;
+        this.hotImages = Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((String key, ProfileImageRenditionEntity rendition) ->
+                        rendition.getContent() != null ? rendition.getContent().length : 1)
+                .build();
+    }
+
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    /**
+     * Decode an uploaded image and store its picture and thumbnail renditions.
+     * Returns their URLs once both are committed: the local URL while a
+     * rendition waits for Cloudinary, or the CDN URL if the same image was
+     * pushed before.
+     *
+     * @throws IllegalArgumentException if the upload is too large or not a readable image
+     */
+    public ProfilePictureResultDTO storeUpload(InputStream content, long size) throws IOException {
+        if (size > maxUploadBytes) {
+            throw new IllegalArgumentException("Profile picture must be at most " + (maxUploadBytes / 1024) + " KB");
+        }
+        BufferedImage image = ImageThumbnails.read(content, maxPixels, Math.max(pictureSize, thumbnailSize));
+        String picture = storeRendition(image, pictureSize);
+        String thumbnail = storeRendition(image, thumbnailSize);
+        return new ProfilePictureResultDTO(picture, thumbnail);
+    }
+
+    // Renditions are named by content hash, so a repeated upload reuses the stored row
+    private String storeRendition(BufferedImage image, int size) throws IOException {
+        byte[] jpeg = ImageThumbnails.render(image, size);
+        String key = BlobStore.contentKeyOf(jpeg, ".jpg");
+        renditionRepository.insertPending(key, jpeg, jpeg.length);
+        String cdnUrl = renditionRepository.findCdnUrl(key);
+        return cdnUrl != null ? cdnUrl : URL_PREFIX + key;
+    }
+
+    /**
+     * The rendition stored under a content-hash name, from memory after its
+     * first lookup. A name always refers to the same bytes, so a copy cached
+     * while the rendition was pending stays valid after it is pushed.
+     * Anything else can only be an older upload, see {@link #find}.
+     */
+    public Optional<ProfileImageRenditionEntity> findRendition(String filename) {
+        if (BlobStore.contentHashOf(filename) == null) {
+            return Optional.empty();
+        }
+        ProfileImageRenditionEntity cached = hotImages.getIfPresent(filename);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<ProfileImageRenditionEntity> rendition = renditionRepository.findById(filename);
+        rendition.filter(r -> r.getContentLength() <= maxCachedImageBytes)
+                .ifPresent(r -> hotImages.put(filename, r));
+        return rendition;
+    }
+
+    // Older uploads can be overwritten in place, so they are streamed from disk and never cached
+    public Optional<StoredBlob> find(String filename) throws IOException {
+        return blobStore.find(filename);
+    }
+
+    public static String contentTypeOf(String filename) {
+        if (filename.endsWith(".png")) return "image/png";
+        if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) return "image/jpeg";
+        if (filename.endsWith(".gif")) return "image/gif";
+        if (filename.endsWith(".svg")) return "image/svg+xml";
+        if (filename.endsWith(".webp")) return "image/webp";
+        return "application/octet-stream"; // Default
+    }
+}
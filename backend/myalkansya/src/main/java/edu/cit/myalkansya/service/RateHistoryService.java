@@ -0,0 +1,173 @@
+package edu.cit.myalkansya.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.cit.myalkansya.entity.ExchangeRateHistoryEntity;
+import edu.cit.myalkansya.repository.ExchangeRateHistoryRepository;
+
+/**
+ * Daily exchange rate tables for the canonical base currency. The most recent
+ * days are kept in a ring buffer indexed by day so trend lookups do not touch
+ * the database; older ranges fall back to range queries on exchange_rate_history.
+ */
+@Service
+public class RateHistoryService {
+
+    private static final Logger logger = Logger.getLogger(RateHistoryService.class.getName());
+
+    // Today plus the longest trend window (90 days)
+    public static final int RECENT_DAYS = 91;
+
+    @Autowired
+    private ExchangeRateHistoryRepository exchangeRateHistoryRepository;
+
+    private final AtomicReferenceArray<DailyRates> recentDays = new AtomicReferenceArray<>(RECENT_DAYS);
+    private volatile boolean recentDaysLoaded;
+
+    public static class DailyRates {
+        private final LocalDate date;
+        private final RateSnapshot snapshot;
+
+        public DailyRates(LocalDate date, RateSnapshot snapshot) {
+            this.date = date;
+            this.snapshot = snapshot;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public RateSnapshot getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    @Transactional
+    public void recordSnapshot(LocalDate date, RateSnapshot snapshot) {
+        String base = snapshot.getBaseCurrency();
+        exchangeRateHistoryRepository.upsert(date, base, snapshot.getPackedCodes(), snapshot.getPackedRates());
+
+        remember(new DailyRates(date, snapshot));
+        logger.info("Stored " + snapshot.getCurrencies().size() + " " + base + " rates for " + date);
+    }
+
+    public boolean hasSnapshot(LocalDate date) {
+        DailyRates cached = cachedDay(date);
+        if (cached != null && cached.getSnapshot() != null) {
+            return true;
+        }
+        return exchangeRateHistoryRepository
+                .findByBaseCurrencyAndRateDate(ExchangeRateService.BASE_CURRENCY, date).isPresent();
+    }
+
+    // Fill the ring buffer from the table, e.g. after a restart
+    public void loadRecentDays(LocalDate today) {
+        List<ExchangeRateHistoryEntity> rows = exchangeRateHistoryRepository
+                .findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(
+                        ExchangeRateService.BASE_CURRENCY, today.minusDays(RECENT_DAYS - 1), today);
+        for (ExchangeRateHistoryEntity row : rows) {
+            remember(toDailyRates(row));
+        }
+        recentDaysLoaded = true;
+        logger.info("Loaded " + rows.size() + " recent days of exchange rate history");
+    }
+
+    /**
+     * Stored tables between two dates inclusive, oldest first. Days without a
+     * stored table are skipped.
+     */
+    public List<DailyRates> getDailyRates(LocalDate startDate, LocalDate endDate) {
+        LocalDate today = LocalDate.now();
+        if (recentDaysLoaded && !startDate.isBefore(today.minusDays(RECENT_DAYS - 1))) {
+            // Days stored by another instance since the buffer was loaded are read from the table
+            LocalDate firstMissing = null;
+            LocalDate lastMissing = null;
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                if (cachedDay(date) == null) {
+                    firstMissing = firstMissing == null ? date : firstMissing;
+                    lastMissing = date;
+                }
+            }
+            if (firstMissing != null) {
+                fillFromTable(firstMissing, lastMissing, today);
+            }
+
+            List<DailyRates> days = new ArrayList<>();
+            for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+                DailyRates cached = cachedDay(date);
+                if (cached != null && cached.getSnapshot() != null) {
+                    days.add(cached);
+                }
+            }
+            return days;
+        }
+
+        List<DailyRates> days = new ArrayList<>();
+        for (ExchangeRateHistoryEntity row : exchangeRateHistoryRepository
+                .findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(ExchangeRateService.BASE_CURRENCY, startDate, endDate)) {
+            days.add(toDailyRates(row));
+        }
+        return days;
+    }
+
+    // Latest stored table on or before the given date
+    public Optional<DailyRates> getRatesOn(LocalDate date) {
+        DailyRates cached = cachedDay(date);
+        if (cached != null && cached.getSnapshot() != null) {
+            return Optional.of(cached);
+        }
+        return exchangeRateHistoryRepository
+                .findFirstByBaseCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(ExchangeRateService.BASE_CURRENCY, date)
+                .map(this::toDailyRates);
+    }
+
+    /**
+     * Load a range of days into the buffer. Past days with no stored table are
+     * remembered as empty so they are not queried again; today is not, since
+     * its table may still be stored later in the day.
+     */
+    private void fillFromTable(LocalDate startDate, LocalDate endDate, LocalDate today) {
+        for (ExchangeRateHistoryEntity row : exchangeRateHistoryRepository
+                .findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(ExchangeRateService.BASE_CURRENCY, startDate, endDate)) {
+            remember(toDailyRates(row));
+        }
+        for (LocalDate date = startDate; !date.isAfter(endDate) && date.isBefore(today); date = date.plusDays(1)) {
+            if (cachedDay(date) == null) {
+                remember(new DailyRates(date, null));
+            }
+        }
+    }
+
+    // The buffered entry for exactly this date, or null; an entry with a null snapshot means no table was stored
+    private DailyRates cachedDay(LocalDate date) {
+        DailyRates cached = recentDays.get(slotOf(date));
+        return cached != null && cached.getDate().equals(date) ? cached : null;
+    }
+
+    private void remember(DailyRates day) {
+        int slot = slotOf(day.getDate());
+        DailyRates current = recentDays.get(slot);
+        // Never let an older day overwrite a newer one sharing the slot
+        if (current == null || !current.getDate().isAfter(day.getDate())) {
+            recentDays.set(slot, day);
+        }
+    }
+
+    private DailyRates toDailyRates(ExchangeRateHistoryEntity row) {
+        return new DailyRates(row.getRateDate(),
+                RateSnapshot.unpack(row.getBaseCurrency(), row.getCurrencyCodes(), row.getPackedRates()));
+    }
+
+    private static int slotOf(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay(), (long) RECENT_DAYS);
+    }
+}
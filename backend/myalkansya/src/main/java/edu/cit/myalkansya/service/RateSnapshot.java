@@ -0,0 +1,113 @@
+package edu.cit.myalkansya.service;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable exchange rate table quoted against a single base currency.
+ * Each currency code is assigned a slot in a primitive array, so any pair is
+ * derived as rate[to] / rate[from] without fetching a table per currency.
+ */
+public final class RateSnapshot {
+
+    private static final String CODE_SEPARATOR = ",";
+
+    private final String baseCurrency;
+    private final String[] codes;
+    private final Map<String, Integer> slots;
+    // Units of each currency per one unit of the base currency
+    private final double[] rates;
+
+    public RateSnapshot(String baseCurrency, Map<String, Double> ratesFromBase) {
+        this.baseCurrency = baseCurrency;
+        this.codes = new String[ratesFromBase.size()];
+        this.rates = new double[ratesFromBase.size()];
+        int slot = 0;
+        for (Map.Entry<String, Double> entry : ratesFromBase.entrySet()) {
+            codes[slot] = entry.getKey();
+            rates[slot++] = entry.getValue();
+        }
+        this.slots = indexOf(codes);
+    }
+
+    private RateSnapshot(String baseCurrency, String[] codes, double[] rates) {
+        this.baseCurrency = baseCurrency;
+        this.codes = codes;
+        this.rates = rates;
+        this.slots = indexOf(codes);
+    }
+
+    /**
+     * Rebuild a snapshot from the columns written by {@link #getPackedCodes()}
+     * and {@link #getPackedRates()}.
+     */
+    public static RateSnapshot unpack(String baseCurrency, String packedCodes, byte[] packedRates) {
+        String[] codes = packedCodes.split(CODE_SEPARATOR);
+        DoubleBuffer buffer = ByteBuffer.wrap(packedRates).asDoubleBuffer();
+        if (buffer.remaining() != codes.length) {
+            throw new IllegalArgumentException("Packed rates do not match " + codes.length + " currency codes");
+        }
+        double[] rates = new double[codes.length];
+        buffer.get(rates);
+        return new RateSnapshot(baseCurrency, codes, rates);
+    }
+
+    private static Map<String, Integer> indexOf(String[] codes) {
+        Map<String, Integer> index = new HashMap<>(codes.length * 2);
+        for (int slot = 0; slot < codes.length; slot++) {
+            index.put(codes[slot], slot);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public Set<String> getCurrencies() {
+        return slots.keySet();
+    }
+
+    public boolean supports(String currency) {
+        return slots.containsKey(currency);
+    }
+
+    public double rate(String fromCurrency, String toCurrency) {
+        return rates[slotOf(toCurrency)] / rates[slotOf(fromCurrency)];
+    }
+
+    // Full table re-quoted against another currency in the snapshot
+    public Map<String, Double> ratesFrom(String fromCurrency) {
+        double fromRate = rates[slotOf(fromCurrency)];
+        Map<String, Double> result = new LinkedHashMap<>(slots.size() * 2);
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            result.put(entry.getKey(), rates[entry.getValue()] / fromRate);
+        }
+        return result;
+    }
+
+    // Currency codes in slot order, stored alongside the packed rates
+    public String getPackedCodes() {
+        return String.join(CODE_SEPARATOR, codes);
+    }
+
+    // Rates as big-endian doubles in slot order, 8 bytes per currency
+    public byte[] getPackedRates() {
+        ByteBuffer buffer = ByteBuffer.allocate(rates.length * Double.BYTES);
+        buffer.asDoubleBuffer().put(rates);
+        return buffer.array();
+    }
+
+    private int slotOf(String currency) {
+        Integer slot = slots.get(currency);
+        if (slot == null) {
+            throw new IllegalArgumentException("Currency not supported: " + currency);
+        }
+        return slot;
+    }
+}
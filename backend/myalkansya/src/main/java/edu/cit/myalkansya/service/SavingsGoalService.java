@@ -1,5 +1,6 @@
 package edu.cit.myalkansya.service;
 
+import edu.cit.myalkansya.dto.SavingsGoalView;
 import edu.cit.myalkansya.entity.SavingsGoalEntity;
 import edu.cit.myalkansya.entity.UserEntity;
 import edu.cit.myalkansya.repository.SavingsGoalRepository;
@@ -25,13 +26,18 @@ public class SavingsGoalService {
         return savingsGoalRepository.findAll();
     }
     
-    public List<SavingsGoalEntity> getSavingsGoalsByUserId(int userId) {
-        return savingsGoalRepository.findByUserUserId(userId);
+    public List<SavingsGoalView> getSavingsGoalsByUserId(int userId) {
+        return savingsGoalRepository.findViewsByUserId(userId);
     }
 
     public Optional<SavingsGoalEntity> getSavingsGoalById(int id) {
         return savingsGoalRepository.findById(id);
     }
+
+    // Ownership is part of the query, so an empty result covers both missing and foreign goals
+    public Optional<SavingsGoalView> getSavingsGoalView(int id, int userId) {
+        return savingsGoalRepository.findViewByIdAndUserId(id, userId);
+    }
     
     // Verify savings goal belongs to user
     public boolean savingsGoalExistsAndBelongsToUser(int goalId, int userId) {
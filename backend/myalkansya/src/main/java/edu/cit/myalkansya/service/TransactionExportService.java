@@ -0,0 +1,198 @@
+package edu.cit.myalkansya.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a user's full transaction history straight from forward-only JDBC
+ * result sets to the response stream. Rows are never collected, so memory
+ * use is the same for ten rows or ten million.
+ */
+@Service
+public class TransactionExportService {
+
+    private static final Logger logger = Logger.getLogger(TransactionExportService.class.getName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Both queries walk the (user_id, date, id) indexes, so the database needs no sort
+    private static final String EXPENSES_SQL =
+            "SELECT 'expense' AS type, id, date, subject AS description, category, amount, currency " +
+            "FROM expenses WHERE user_id = ? ORDER BY date, id";
+    private static final String INCOMES_SQL =
+            "SELECT 'income' AS type, id, date, source AS description, NULL AS category, amount, currency " +
+            "FROM incomes WHERE user_id = ? ORDER BY date, id";
+    private static final String CSV_HEADER = "type,id,date,description,category,amount,currency\n";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void writeTransactions(int userId, Format format, OutputStream out, boolean gzip) throws IOException {
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, BUFFER_SIZE);
+            writeTransactions(userId, format, compressed);
+            // Finish rather than close; the container owns the response stream
+            compressed.finish();
+        } else {
+            writeTransactions(userId, format, out);
+        }
+        out.flush();
+    }
+
+    private void writeTransactions(int userId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        JsonGenerator json = null;
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+        } else {
+            json = objectMapper.getFactory().createGenerator(writer);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Each object is terminated by its own newline instead of the default space separator
+            json.setRootValueSeparator(null);
+        }
+
+        RowWriter rowWriter = new RowWriter(writer, json);
+        long rows = stream(EXPENSES_SQL, userId, rowWriter) + stream(INCOMES_SQL, userId, rowWriter);
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+        logger.fine("Exported " + rows + " transactions for user " + userId);
+    }
+
+    private long stream(String sql, int userId, RowWriter rowWriter) {
+        long[] count = {0L};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // MySQL Connector/J streams rows one at a time only with this fetch size
+            statement.setFetchSize(Integer.MIN_VALUE);
+            statement.setInt(1, userId);
+            return statement;
+        }, resultSet -> {
+            try {
+                rowWriter.write(resultSet);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    // Writes the current result set row in the chosen format
+    private static final class RowWriter {
+        private final Writer writer;
+        private final JsonGenerator json;
+
+        RowWriter(Writer writer, JsonGenerator json) {
+            this.writer = writer;
+            this.json = json;
+        }
+
+        void write(ResultSet row) throws IOException, SQLException {
+            String type = row.getString("type");
+            int id = row.getInt("id");
+            Date date = row.getDate("date");
+            String description = row.getString("description");
+            String category = row.getString("category");
+            // Plain notation so large amounts are never written as 1.0E7
+            BigDecimal amount = BigDecimal.valueOf(row.getDouble("amount"));
+            String currency = row.getString("currency");
+
+            if (json == null) {
+                writer.write(type);
+                writer.write(',');
+                writer.write(Integer.toString(id));
+                writer.write(',');
+                writer.write(date != null ? date.toString() : "");
+                writer.write(',');
+                writeCsvValue(description);
+                writer.write(',');
+                writeCsvValue(category);
+                writer.write(',');
+                writer.write(amount.toPlainString());
+                writer.write(',');
+                writeCsvValue(currency);
+                writer.write('\n');
+                return;
+            }
+
+            json.writeStartObject();
+            json.writeStringField("type", type);
+            json.writeNumberField("id", id);
+            json.writeStringField("date", date != null ? date.toString() : null);
+            json.writeStringField("description", description);
+            json.writeStringField("category", category);
+            json.writeFieldName("amount");
+            json.writeNumber(amount.toPlainString());
+            json.writeStringField("currency", currency);
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeCsvValue(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package edu.cit.myalkansya.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.cit.myalkansya.dto.ImportResultDTO;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity.EntryType;
+import edu.cit.myalkansya.entity.UserEntity;
+import edu.cit.myalkansya.money.Money;
+import edu.cit.myalkansya.repository.BudgetRepository;
+import edu.cit.myalkansya.repository.UserRepository;
+
+/**
+ * Bulk import of expenses or incomes from a CSV or NDJSON body. Rows are
+ * parsed as a stream and written with batched JDBC inserts. The budget,
+ * rollup, currency balance and ledger updates are summed per batch and
+ * applied once per batch, not once per row. The whole import is one
+ * transaction, so a bad row rejects the upload without partial data.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final Logger logger = Logger.getLogger(TransactionImportService.class.getName());
+
+    private static final String INSERT_EXPENSE =
+            "INSERT INTO expenses (user_id, budget_id, subject, category, date, amount, currency) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INCOME =
+            "INSERT INTO incomes (user_id, source, date, amount, currency, original_amount, original_currency) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private BudgetIndexService budgetIndexService;
+
+    @Autowired
+    private MonthlyRollupService monthlyRollupService;
+
+    @Autowired
+    private CurrencyBalanceService currencyBalanceService;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Value("${transactions.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${transactions.import.max-rows:100000}")
+    private int maxRows;
+
+    // One parsed row; label is the expense subject or the income source
+    private static final class ImportRow {
+        final String label;
+        final String category;
+        final LocalDate date;
+        final double amount;
+        final String currency;
+        Integer budgetId;
+
+        ImportRow(String label, String category, LocalDate date, double amount, String currency) {
+            this.label = label;
+            this.category = category;
+            this.date = date;
+            this.amount = amount;
+            this.currency = currency;
+        }
+    }
+
+    // Sum and count of the rows of one batch that share a rollup bucket
+    private static final class Bucket {
+        final LocalDate monthStart;
+        final String category;
+        long minorUnits;
+        int count;
+
+        Bucket(LocalDate monthStart, String category) {
+            this.monthStart = monthStart;
+            this.category = category;
+        }
+    }
+
+    @Transactional
+    public ImportResultDTO importExpenses(int userId, InputStream body, String contentType) throws IOException {
+        return importRows(userId, body, contentType, true);
+    }
+
+    @Transactional
+    public ImportResultDTO importIncomes(int userId, InputStream body, String contentType) throws IOException {
+        return importRows(userId, body, contentType, false);
+    }
+
+    private ImportResultDTO importRows(int userId, InputStream body, String contentType, boolean expenses)
+            throws IOException {
+        UserEntity user = userRepository.findById(userId)
+                .orElseThrow(() -> new NoSuchElementException("User with ID " + userId + " not found."));
+        ImportRowReader reader = new ImportRowReader(body, ImportRowReader.formatOf(contentType), objectMapper);
+
+        // Budget ids for this request, keyed by category and month. The shared index is
+        // reloaded first so no row is linked to a budget deleted on another instance.
+        if (expenses) {
+            budgetIndexService.invalidate(userId);
+        }
+        Map<String, Optional<Integer>> budgetCache = new HashMap<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        int rows = 0;
+        int batches = 0;
+        long totalMinorUnits = 0L;
+
+        Map<String, String> fields;
+        while ((fields = reader.next()) != null) {
+            if (++rows > maxRows) {
+                throw new IllegalArgumentException("Import is limited to " + maxRows + " rows");
+            }
+            ImportRow row = parseRow(fields, reader.getLineNumber(), expenses, user.getCurrency());
+            if (expenses) {
+                String budgetKey = row.date.getYear() + "-" + row.date.getMonthValue() + ":" + row.category;
+                row.budgetId = budgetCache
+                        .computeIfAbsent(budgetKey, key -> budgetIndexService.findBudgetId(userId, row.category, row.date))
+                        .orElse(null);
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                totalMinorUnits += writeBatch(userId, user.getCurrency(), batch, expenses);
+                batches++;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            totalMinorUnits += writeBatch(userId, user.getCurrency(), batch, expenses);
+            batches++;
+        }
+
+        logger.info("Imported " + rows + (expenses ? " expenses" : " incomes") + " for user " + userId
+                + " in " + batches + " batches");
+        return new ImportResultDTO(rows, batches, Money.toMajorUnits(totalMinorUnits));
+    }
+
+    private ImportRow parseRow(Map<String, String> fields, int lineNumber, boolean expenses, String userCurrency) {
+        String label = text(fields, expenses ? "subject" : "source");
+        String category = expenses ? text(fields, "category") : null;
+        if (label == null) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + (expenses ? "subject" : "source") + " is required");
+        }
+        if (expenses && category == null) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": category is required");
+        }
+
+        String dateText = text(fields, "date");
+        String amountText = text(fields, "amount");
+        if (dateText == null || amountText == null) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": date and amount are required");
+        }
+        LocalDate date;
+        double amount;
+        try {
+            date = LocalDate.parse(dateText);
+            amount = Money.roundToCents(Double.parseDouble(amountText));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": invalid date or amount");
+        }
+        if (!(amount > 0)) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": amount must be positive");
+        }
+
+        String currency = text(fields, "currency");
+        return new ImportRow(label, category, date, amount, currency != null ? currency.toUpperCase() : userCurrency);
+    }
+
+    private static String text(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * Insert one batch and apply its derived totals. Returns the batch total in minor units.
+     */
+    private long writeBatch(int userId, String userCurrency, List<ImportRow> batch, boolean expenses) {
+        if (expenses) {
+            jdbcTemplate.batchUpdate(INSERT_EXPENSE, batch, batch.size(), (ps, row) -> {
+                ps.setInt(1, userId);
+                if (row.budgetId != null) {
+                    ps.setInt(2, row.budgetId);
+                } else {
+                    ps.setNull(2, Types.INTEGER);
+                }
+                ps.setString(3, row.label);
+                ps.setString(4, row.category);
+                ps.setDate(5, Date.valueOf(row.date));
+                ps.setDouble(6, row.amount);
+                ps.setString(7, row.currency);
+            });
+        } else {
+            jdbcTemplate.batchUpdate(INSERT_INCOME, batch, batch.size(), (ps, row) -> {
+                ps.setInt(1, userId);
+                ps.setString(2, row.label);
+                ps.setDate(3, Date.valueOf(row.date));
+                ps.setDouble(4, row.amount);
+                ps.setString(5, row.currency);
+                // Same rule as IncomeService.createIncome: keep the original when it differs from the user's currency
+                if (!row.currency.equals(userCurrency)) {
+                    ps.setDouble(6, row.amount);
+                    ps.setString(7, row.currency);
+                } else {
+                    ps.setNull(6, Types.DOUBLE);
+                    ps.setNull(7, Types.VARCHAR);
+                }
+            });
+        }
+
+        long totalMinorUnits = 0L;
+        Map<Integer, Long> budgetTotals = new HashMap<>();
+        Map<String, Long> currencyTotals = new HashMap<>();
+        Map<String, Bucket> buckets = new LinkedHashMap<>();
+        for (ImportRow row : batch) {
+            long minorUnits = Money.toMinorUnits(row.amount);
+            totalMinorUnits += minorUnits;
+            if (row.budgetId != null) {
+                budgetTotals.merge(row.budgetId, minorUnits, Long::sum);
+            }
+            currencyTotals.merge(row.currency, minorUnits, Long::sum);
+            LocalDate monthStart = row.date.withDayOfMonth(1);
+            Bucket bucket = buckets.computeIfAbsent(monthStart + ":" + row.category,
+                    key -> new Bucket(monthStart, row.category));
+            bucket.minorUnits += minorUnits;
+            bucket.count++;
+        }
+
+        for (Map.Entry<Integer, Long> entry : budgetTotals.entrySet()) {
+            budgetRepository.addToTotalSpent(entry.getKey(), Money.toMajorUnits(entry.getValue()));
+        }
+        for (Map.Entry<String, Long> entry : currencyTotals.entrySet()) {
+            double amount = Money.toMajorUnits(entry.getValue());
+            if (expenses) {
+                currencyBalanceService.recordExpense(userId, entry.getKey(), amount);
+            } else {
+                currencyBalanceService.recordIncome(userId, entry.getKey(), amount);
+            }
+        }
+        for (Bucket bucket : buckets.values()) {
+            double amount = Money.toMajorUnits(bucket.minorUnits);
+            if (expenses) {
+                monthlyRollupService.recordExpenses(userId, bucket.monthStart, bucket.category, amount, bucket.count);
+            } else {
+                monthlyRollupService.recordIncomes(userId, bucket.monthStart, amount, bucket.count);
+            }
+        }
+
+        double batchTotal = Money.toMajorUnits(totalMinorUnits);
+        if (expenses) {
+            balanceLedgerService.record(userId, -batchTotal, EntryType.EXPENSE_IMPORT, null);
+        } else {
+            balanceLedgerService.record(userId, batchTotal, EntryType.INCOME_IMPORT, null);
+        }
+        return totalMinorUnits;
+    }
+}
@@ -0,0 +1,38 @@
+package edu.cit.myalkansya.service;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import edu.cit.myalkansya.dto.CursorPageDTO;
+import edu.cit.myalkansya.dto.TransactionCursor;
+import edu.cit.myalkansya.dto.TransactionView;
+
+/**
+ * Keyset pages of incomes or expenses, ordered by date then id, both
+ * descending. Rows without a date come after every dated row: that is where
+ * MySQL sorts NULL in descending order, so the (user_id, date, id) indexes
+ * still return the rows in page order.
+ */
+final class TransactionPages {
+
+    private TransactionPages() {
+    }
+
+    // Fetches one row past the page to learn whether another page follows
+    static <T extends TransactionView> CursorPageDTO<T> fetch(String cursor, int limit, int maxPageSize,
+                                                              BiFunction<TransactionCursor, Pageable, List<T>> query) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<T> rows = query.apply(TransactionCursor.decode(cursor), PageRequest.of(0, pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            T last = rows.get(pageSize - 1);
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+        return new CursorPageDTO<>(rows, nextCursor);
+    }
+}
@@ -1,6 +1,7 @@
 package edu.cit.myalkansya.service;
 
 import edu.cit.myalkansya.dto.GoogleUserDTO;
+import edu.cit.myalkansya.dto.ProfilePictureResultDTO;
 import edu.cit.myalkansya.dto.UserUpdateDTO;
 import edu.cit.myalkansya.entity.UserEntity;
 import edu.cit.myalkansya.repository.UserRepository;
@@ -10,16 +11,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
 import java.time.LocalDateTime;
-import java.util.Base64;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.UUID;
 
 
 @Service
@@ -32,7 +29,7 @@ public class UserService {
     private PasswordEncoder encoder;
 
     @Autowired
-    private CloudinaryService cloudinaryService;
+    private ProfileImageService profileImageService;
 
     public UserEntity registerLocalUser(String firstname, String lastname, String email, String password, String currency) {
         UserEntity user = new UserEntity();
@@ -108,84 +105,44 @@ public class UserService {
         return userRepo.save(user);
     }
 
-    @Transactional
-    public String uploadProfilePicture(String email, MultipartFile file) throws IOException {
-        Optional<UserEntity> userOpt = userRepo.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            throw new NoSuchElementException("User not found");
-        }
+    /**
+     * Store a multipart upload as the user's profile picture. The part is read
+     * from its spooled temp file and its thumbnails are committed to the
+     * Cloudinary outbox before the URLs are saved. Not transactional, so no
+     * database connection is held while the image is decoded.
+     */
+    public ProfilePictureResultDTO uploadProfilePicture(int userId, MultipartFile file) throws IOException {
+        UserEntity user = userRepo.findById(userId)
+            .orElseThrow(() -> new NoSuchElementException("User not found"));
 
-        UserEntity user = userOpt.get();
-        
-        // Create upload directory if it doesn't exist
-        String uploadDir = "user-profile-pictures";
-        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        ProfilePictureResultDTO result;
+        try (InputStream content = file.getInputStream()) {
+            result = profileImageService.storeUpload(content, file.getSize());
         }
-        
-        // Create a unique file name to prevent collisions
-        String filename = user.getUserId() + "_" + UUID.randomUUID().toString();
-        
-        // Get file extension
-        String originalFilename = file.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        
-        Path filePath = uploadPath.resolve(filename + extension);
-        
-        // Copy the file to the upload directory
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        
-        // Important: Use the correct URL format for the profile picture
-        String profilePictureUrl = "/api/users/profile-pictures/" + filename + extension;
-        user.setProfilePicture(profilePictureUrl);
-        userRepo.save(user);
-        
-        return profilePictureUrl;
+        return saveProfilePicture(user, result);
     }
 
-    @Transactional
-    public String uploadProfilePictureBase64(String email, byte[] imageBytes, String fileName, String contentType) {
-        Optional<UserEntity> userOpt = userRepo.findByEmail(email);
-        if (userOpt.isEmpty()) {
-            throw new NoSuchElementException("User not found");
-        }
+    // Older clients send the image as Base64 JSON; it goes through the same thumbnail and upload path
+    public ProfilePictureResultDTO uploadProfilePictureBase64(String email, byte[] imageBytes) throws IOException {
+        UserEntity user = userRepo.findByEmail(email)
+            .orElseThrow(() -> new NoSuchElementException("User not found"));
 
-        UserEntity user = userOpt.get();
-        
-        try {
-            // Generate a unique filename
-            String uniqueFileName = UUID.randomUUID() + "_" + (fileName != null ? fileName : "profile.jpg");
-            
-            // Upload to Cloudinary and get the URL
-            String imageUrl = cloudinaryService.uploadImage(imageBytes, uniqueFileName);
-            
-            // Store the URL in the user profile (not the image data itself)
-            user.setProfilePicture(imageUrl);
-            // Don't need to store the bytes anymore
-            user.setProfileImageData(null);
-            
-            userRepo.save(user);
-            
-            return imageUrl;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to upload image: " + e.getMessage());
-        }
+        ProfilePictureResultDTO result = profileImageService.storeUpload(new ByteArrayInputStream(imageBytes), imageBytes.length);
+        return saveProfilePicture(user, result);
+    }
+
+    private ProfilePictureResultDTO saveProfilePicture(UserEntity user, ProfilePictureResultDTO result) {
+        user.setProfilePicture(result.getProfilePicture());
+        user.setProfilePictureThumbnail(result.getProfilePictureThumbnail());
+        userRepo.save(user);
+        return result;
     }
 
-    // Add a method to retrieve profile picture as Base64
-    public String getProfilePictureBase64(int userId) {
+    // Image bytes are served separately from the URL, so this never loads them
+    public String getProfilePictureUrl(int userId) {
         UserEntity user = userRepo.findById(userId)
             .orElseThrow(() -> new NoSuchElementException("User not found"));
-        
-        if (user.getProfileImageData() != null) {
-            return Base64.getEncoder().encodeToString(user.getProfileImageData());
-        }
-        
-        return null;
+        return user.getProfilePicture();
     }
 
     @Transactional
@@ -0,0 +1,39 @@
+package edu.cit.myalkansya.storage;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read access to profile pictures that older versions saved as files. New
+ * pictures are stored on Cloudinary, pushed from the profile_image_renditions
+ * outbox, so nothing writes to a blob store any more. Outbox renditions are
+ * named by the SHA-256 of their bytes plus a file extension, see
+ * {@link #contentKeyOf}.
+ */
+public interface BlobStore {
+
+    Pattern CONTENT_ADDRESSED_KEY = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,8})?");
+
+    Optional<StoredBlob> find(String key) throws IOException;
+
+    // The key content is stored under, for copies kept elsewhere under the same name
+    static String contentKeyOf(byte[] content, String extension) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(hash) + (extension == null ? "" : extension);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // SHA-256 hex of a content-addressed key, or null for the names of older uploads
+    static String contentHashOf(String key) {
+        Matcher matcher = CONTENT_ADDRESSED_KEY.matcher(key);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+}
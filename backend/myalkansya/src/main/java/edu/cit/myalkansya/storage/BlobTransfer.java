@@ -0,0 +1,144 @@
+package edu.cit.myalkansya.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a {@link StoredBlob} as the response body, honouring a single-range
+ * Range request. File-backed blobs are handed to Tomcat's sendfile when the
+ * connector supports it, so the kernel copies the file to the socket;
+ * otherwise they are sent with FileChannel.transferTo.
+ */
+public final class BlobTransfer {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private BlobTransfer() {
+    }
+
+    /**
+     * Send the whole blob, or the requested byte range as a 206. Conditional
+     * headers other than If-Range must already have been checked by the caller.
+     *
+     * @param cachedBytes the blob's bytes if they are held in memory, otherwise null
+     * @param etag the strong ETag sent with the response, compared against If-Range
+     */
+    public static void send(StoredBlob blob, byte[] cachedBytes, String etag,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = blob.getContentLength();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, etag, blob)) {
+            write(blob, cachedBytes, 0, length, request, response);
+            return;
+        }
+
+        long start;
+        long end;
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            if (ranges.size() != 1) {
+                // Multipart byteranges are not worth supporting for images; the full body is a valid answer
+                write(blob, cachedBytes, 0, length, request, response);
+                return;
+            }
+            start = ranges.get(0).getRangeStart(length);
+            end = ranges.get(0).getRangeEnd(length);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setContentLength(0);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        write(blob, cachedBytes, start, end - start + 1, request, response);
+    }
+
+    // A Range only applies if the client's copy is still current; If-Range needs an exact strong match
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, StoredBlob blob) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return date == blob.getLastModified().toEpochMilli() / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void write(StoredBlob blob, byte[] cachedBytes, long start, long count,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (cachedBytes != null) {
+            response.getOutputStream().write(cachedBytes, (int) start, (int) count);
+            return;
+        }
+
+        Resource resource = blob.getResource();
+        if (!resource.isFile()) {
+            try (InputStream in = resource.getInputStream()) {
+                in.skipNBytes(start);
+                byte[] buffer = new byte[8192];
+                long remaining = count;
+                while (remaining > 0) {
+                    int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                    if (read < 0) {
+                        break;
+                    }
+                    response.getOutputStream().write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+            return;
+        }
+
+        Path path = resource.getFile().toPath();
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat sends the file after the handler returns
+            request.setAttribute(SENDFILE_FILENAME, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + count;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+}
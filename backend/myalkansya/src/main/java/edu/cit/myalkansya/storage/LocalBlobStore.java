@@ -0,0 +1,49 @@
+package edu.cit.myalkansya.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+
+/**
+ * {@link BlobStore} over the upload directory older versions wrote profile
+ * pictures to. Keys are single file names inside that directory.
+ */
+@Component
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${storage.local.root:user-profile-pictures}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public Optional<StoredBlob> find(String key) throws IOException {
+        Optional<Path> path = resolve(key);
+        if (path.isEmpty() || !Files.isRegularFile(path.get())) {
+            return Optional.empty();
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path.get(), BasicFileAttributes.class);
+        return Optional.of(new StoredBlob(key, new FileSystemResource(path.get()),
+                attributes.size(), attributes.lastModifiedTime().toInstant()));
+    }
+
+    // Anything that is not a plain file name inside the root, including hidden files, is not found
+    private Optional<Path> resolve(String key) {
+        if (key == null || key.isEmpty() || key.startsWith(".")) {
+            return Optional.empty();
+        }
+        Path path = root.resolve(key).normalize();
+        if (!root.equals(path.getParent())) {
+            return Optional.empty();
+        }
+        return Optional.of(path);
+    }
+}
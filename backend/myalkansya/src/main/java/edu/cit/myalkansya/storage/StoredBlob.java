@@ -0,0 +1,40 @@
+package edu.cit.myalkansya.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.time.Instant;
+
+/**
+ * A blob found in a {@link BlobStore}. File-backed resources can be sent to the
+ * client without copying through the heap, see {@link BlobTransfer}.
+ */
+public final class StoredBlob {
+
+    private final String key;
+    private final Resource resource;
+    private final long contentLength;
+    private final Instant lastModified;
+
+    public StoredBlob(String key, Resource resource, long contentLength, Instant lastModified) {
+        this.key = key;
+        this.resource = resource;
+        this.contentLength = contentLength;
+        this.lastModified = lastModified;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+}
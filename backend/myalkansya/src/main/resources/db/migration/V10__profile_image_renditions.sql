@@ -0,0 +1,17 @@
+-- Profile picture renditions waiting for, or already pushed to, Cloudinary.
+-- Rows are keyed by content hash, so the bytes are durable and servable by
+-- any instance from the moment an upload returns. Once pushed, content is
+-- cleared and cdn_url is where the local URL redirects.
+CREATE TABLE IF NOT EXISTS profile_image_renditions (
+    rendition_key VARCHAR(80) NOT NULL,
+    content MEDIUMBLOB,
+    content_length INT NOT NULL,
+    cdn_url VARCHAR(1024),
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1024),
+    created_at DATETIME(6) NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    pushed_at DATETIME(6),
+    PRIMARY KEY (rendition_key),
+    INDEX idx_profile_image_renditions_due (pushed_at, next_attempt_at)
+) ENGINE = InnoDB;
@@ -0,0 +1,31 @@
+-- Profile pictures still held in users.profile_image_data, for users without
+-- a picture URL, join the Cloudinary outbox (V10) named by content hash with
+-- an extension from their magic bytes, and those users get the outbox URL.
+-- Users with a URL never saw the stored bytes. The push job uploads the
+-- outbox rows, so the column can go in the same migration.
+INSERT IGNORE INTO profile_image_renditions
+    (rendition_key, content, content_length, attempts, created_at, next_attempt_at)
+SELECT CONCAT(SHA2(u.profile_image_data, 256),
+              CASE
+                  WHEN LEFT(u.profile_image_data, 3) = X'FFD8FF' THEN '.jpg'
+                  WHEN LEFT(u.profile_image_data, 8) = X'89504E470D0A1A0A' THEN '.png'
+                  WHEN LEFT(u.profile_image_data, 4) = 'GIF8' THEN '.gif'
+                  ELSE ''
+              END),
+       u.profile_image_data, LENGTH(u.profile_image_data), 0, NOW(6), NOW(6)
+FROM users u
+WHERE u.profile_image_data IS NOT NULL
+  AND (u.profile_picture IS NULL OR u.profile_picture = '');
+
+UPDATE users
+SET profile_picture = CONCAT('/api/users/profile-pictures/', SHA2(profile_image_data, 256),
+                             CASE
+                                 WHEN LEFT(profile_image_data, 3) = X'FFD8FF' THEN '.jpg'
+                                 WHEN LEFT(profile_image_data, 8) = X'89504E470D0A1A0A' THEN '.png'
+                                 WHEN LEFT(profile_image_data, 4) = 'GIF8' THEN '.gif'
+                                 ELSE ''
+                             END)
+WHERE profile_image_data IS NOT NULL
+  AND (profile_picture IS NULL OR profile_picture = '');
+
+ALTER TABLE users DROP COLUMN profile_image_data;
@@ -0,0 +1,82 @@
+-- Schema as previously created by Hibernate from the entity mappings.
+-- Existing databases are baselined at this version (see FlywayConfig), so this
+-- script only runs against an empty database.
+
+CREATE TABLE IF NOT EXISTS users (
+    user_id INT NOT NULL AUTO_INCREMENT,
+    firstname VARCHAR(255) NOT NULL,
+    lastname VARCHAR(255),
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255),
+    auth_provider VARCHAR(255),
+    provider_id VARCHAR(255),
+    profile_picture VARCHAR(1024),
+    total_savings DOUBLE NOT NULL,
+    currency VARCHAR(255),
+    original_total_savings DOUBLE,
+    original_currency VARCHAR(255),
+    created_at DATETIME(6),
+    profile_image_data LONGBLOB,
+    PRIMARY KEY (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS budgets (
+    id INT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    category VARCHAR(255),
+    monthly_budget DOUBLE NOT NULL,
+    total_spent DOUBLE NOT NULL,
+    currency VARCHAR(255),
+    budget_month INT NOT NULL,
+    budget_year INT NOT NULL,
+    original_monthly_budget DOUBLE,
+    original_total_spent DOUBLE,
+    original_currency VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_budgets_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS incomes (
+    id INT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    source VARCHAR(255),
+    date DATE,
+    amount DOUBLE NOT NULL,
+    currency VARCHAR(255),
+    original_amount DOUBLE,
+    original_currency VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_incomes_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS expenses (
+    id INT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    budget_id INT,
+    subject VARCHAR(255),
+    category VARCHAR(255),
+    date DATE,
+    amount DOUBLE NOT NULL,
+    currency VARCHAR(255),
+    original_amount DOUBLE,
+    original_currency VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_expenses_user FOREIGN KEY (user_id) REFERENCES users (user_id),
+    CONSTRAINT fk_expenses_budget FOREIGN KEY (budget_id) REFERENCES budgets (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS savings_goals (
+    id INT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    goal VARCHAR(255),
+    target_amount DOUBLE NOT NULL,
+    current_amount DOUBLE NOT NULL,
+    target_date DATE,
+    currency VARCHAR(255),
+    original_target_amount DOUBLE,
+    original_current_amount DOUBLE,
+    original_currency VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_savings_goals_user FOREIGN KEY (user_id) REFERENCES users (user_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,51 @@
+-- Per-user date indexes for the paged and ranged income/expense finders
+CREATE INDEX idx_incomes_user_date_id ON incomes (user_id, date, id);
+CREATE INDEX idx_expenses_user_date_id ON expenses (user_id, date, id);
+CREATE INDEX idx_expenses_user_category_date ON expenses (user_id, category, date);
+
+-- Summary tables maintained alongside incomes and expenses
+
+CREATE TABLE IF NOT EXISTS monthly_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    rollup_year INT NOT NULL,
+    rollup_month INT NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    income_sum DOUBLE NOT NULL,
+    expense_sum DOUBLE NOT NULL,
+    income_count INT NOT NULL,
+    expense_count INT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rollup_user_month_kind_category UNIQUE (user_id, rollup_year, rollup_month, kind, category)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS exchange_rate_history (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    rate_date DATE NOT NULL,
+    base_currency VARCHAR(3) NOT NULL,
+    currency_codes TEXT NOT NULL,
+    packed_rates BLOB NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_rate_history_base_date UNIQUE (base_currency, rate_date)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS currency_balances (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    net_amount DOUBLE NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_currency_balance_user_currency UNIQUE (user_id, currency)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS balance_ledger (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    amount DOUBLE NOT NULL,
+    entry_type VARCHAR(32) NOT NULL,
+    reference_id INT,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_balance_ledger_user (user_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,13 @@
+-- Composite indexes for the repository finders that filter on user_id plus another column.
+
+-- ExpenseRepository.findByUserUserIdAndCategoryAndSubject / findViewsByUserIdAndCategoryAndSubject
+CREATE INDEX idx_expenses_user_category_subject ON expenses (user_id, category, subject);
+
+-- BudgetRepository month/year finders, findByUserUserIdAndCategoryAndBudgetMonthAndBudgetYear
+CREATE INDEX idx_budgets_user_year_month_category ON budgets (user_id, budget_year, budget_month, category);
+
+-- BudgetRepository.findByUserUserIdAndCategory
+CREATE INDEX idx_budgets_user_category ON budgets (user_id, category);
+
+-- UserRepository.findByProviderId on Google sign-in
+CREATE INDEX idx_users_provider_id ON users (provider_id);
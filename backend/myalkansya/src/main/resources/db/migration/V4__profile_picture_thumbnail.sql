@@ -0,0 +1,2 @@
+-- Small square avatar rendered alongside the profile picture on upload
+ALTER TABLE users ADD COLUMN profile_picture_thumbnail VARCHAR(1024);
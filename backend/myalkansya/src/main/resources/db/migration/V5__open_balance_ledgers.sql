@@ -0,0 +1,8 @@
+-- Opening ledger entry for every balance that predates the ledger, written
+-- before the application serves traffic so each user's entries sum to their
+-- stored total from the start. Flyway applies this once, under its own lock.
+INSERT INTO balance_ledger (user_id, amount, entry_type, created_at)
+SELECT u.user_id, u.total_savings, 'OPENING', NOW(6)
+FROM users u
+WHERE u.total_savings <> 0
+  AND NOT EXISTS (SELECT 1 FROM balance_ledger l WHERE l.user_id = u.user_id);
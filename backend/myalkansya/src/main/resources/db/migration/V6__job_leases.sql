@@ -0,0 +1,7 @@
+-- Time-limited leases so a scheduled job that fires on every instance runs on only one
+CREATE TABLE IF NOT EXISTS job_leases (
+    job_name VARCHAR(64) NOT NULL,
+    locked_until DATETIME(6) NOT NULL,
+    locked_by VARCHAR(255),
+    PRIMARY KEY (job_name)
+) ENGINE = InnoDB;
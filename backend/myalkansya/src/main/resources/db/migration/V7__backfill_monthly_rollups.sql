@@ -0,0 +1,16 @@
+-- Rollups for incomes and expenses written before monthly_rollups existed.
+-- Runs once, before the application serves traffic, in the same migrate as
+-- the table's creation, so the table is empty here.
+INSERT INTO monthly_rollups
+    (user_id, rollup_year, rollup_month, kind, category, income_sum, expense_sum, income_count, expense_count)
+SELECT e.user_id, YEAR(e.date), MONTH(e.date), 'EXPENSE', COALESCE(e.category, ''), 0, SUM(e.amount), 0, COUNT(*)
+FROM expenses e
+WHERE e.date IS NOT NULL
+GROUP BY e.user_id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, '');
+
+INSERT INTO monthly_rollups
+    (user_id, rollup_year, rollup_month, kind, category, income_sum, expense_sum, income_count, expense_count)
+SELECT i.user_id, YEAR(i.date), MONTH(i.date), 'INCOME', '', SUM(i.amount), 0, COUNT(*), 0
+FROM incomes i
+WHERE i.date IS NOT NULL
+GROUP BY i.user_id, YEAR(i.date), MONTH(i.date);
@@ -0,0 +1,10 @@
+-- Per-currency balances for incomes and expenses written before
+-- currency_balances existed. Runs once, before the application serves traffic.
+INSERT INTO currency_balances (user_id, currency, net_amount)
+SELECT t.user_id, t.currency, SUM(t.amount)
+FROM (
+    SELECT i.user_id, COALESCE(i.currency, '') AS currency, i.amount FROM incomes i
+    UNION ALL
+    SELECT e.user_id, COALESCE(e.currency, '') AS currency, -e.amount FROM expenses e
+) t
+GROUP BY t.user_id, t.currency;
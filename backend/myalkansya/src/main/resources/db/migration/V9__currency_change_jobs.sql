@@ -0,0 +1,21 @@
+-- Currency change jobs, shared by all instances. active_user_id is set only
+-- while a job is queued or running, so its unique index allows one active
+-- conversion per user and releases the slot as soon as the job finishes.
+CREATE TABLE IF NOT EXISTS currency_change_jobs (
+    job_id VARCHAR(36) NOT NULL,
+    user_id INT NOT NULL,
+    from_currency VARCHAR(16) NOT NULL,
+    to_currency VARCHAR(16) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    current_step VARCHAR(64),
+    completed_steps INT NOT NULL,
+    total_steps INT NOT NULL,
+    error VARCHAR(1024),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6),
+    active_user_id INT AS (CASE WHEN status IN ('QUEUED', 'RUNNING') THEN user_id END) STORED,
+    PRIMARY KEY (job_id),
+    CONSTRAINT uk_currency_change_jobs_active_user UNIQUE (active_user_id),
+    INDEX idx_currency_change_jobs_user (user_id, created_at)
+) ENGINE = InnoDB;
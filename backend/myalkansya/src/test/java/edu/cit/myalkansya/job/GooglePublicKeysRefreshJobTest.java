@@ -0,0 +1,61 @@
+package edu.cit.myalkansya.job;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import edu.cit.myalkansya.security.GoogleCertsStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the refresh job follows the max-age of the (stubbed) certs
+ * response: keys far from expiry are left alone, keys close to it are refetched.
+ */
+class GooglePublicKeysRefreshJobTest {
+
+    private GoogleCertsStub certs;
+    private GooglePublicKeysManager keysManager;
+    private GooglePublicKeysRefreshJob job;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        certs = new GoogleCertsStub();
+        keysManager = certs.newKeysManager();
+        job = new GooglePublicKeysRefreshJob(keysManager, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        certs.close();
+    }
+
+    @Test
+    void firstRunLoadsTheKeys() {
+        job.refreshIfExpiring();
+
+        assertEquals(1, certs.getCertRequests());
+    }
+
+    @Test
+    void keysWithinTheirMaxAgeAreNotRefetched() throws Exception {
+        certs.setMaxAgeSeconds(3600);
+        keysManager.refresh();
+
+        job.refreshIfExpiring();
+        job.refreshIfExpiring();
+
+        assertEquals(1, certs.getCertRequests());
+    }
+
+    @Test
+    void keysCloseToExpiryAreRefetchedAhead() throws Exception {
+        // Five minutes of max-age is inside the ten minute refresh window
+        certs.setMaxAgeSeconds(300);
+        keysManager.refresh();
+
+        job.refreshIfExpiring();
+
+        assertEquals(2, certs.getCertRequests());
+    }
+}
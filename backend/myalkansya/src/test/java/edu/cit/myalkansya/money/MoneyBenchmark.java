@@ -0,0 +1,79 @@
+package edu.cit.myalkansya.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Converts and sums a batch of amounts, rounding each converted amount to
+ * cents, the way the services used to (BigDecimal HALF_EVEN per amount) and
+ * the way they do now (long minor units). Both paths give the same total,
+ * which setup checks before anything is measured. Run with {@code mvn
+ * test-compile exec:java -Dexec.mainClass=edu.cit.myalkansya.money.MoneyBenchmark
+ * -Dexec.classpathScope=test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final double RATE = 0.017_85;
+
+    @Param({"10000"})
+    private int size;
+
+    private double[] amounts;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        amounts = new double[size];
+        for (int i = 0; i < size; i++) {
+            amounts[i] = random.nextInt(1, 10_000_000) / 100.0;
+        }
+        if (bigDecimal() != minorUnits()) {
+            throw new IllegalStateException("BigDecimal and minor unit totals differ");
+        }
+    }
+
+    @Benchmark
+    public double bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (double amount : amounts) {
+            total = total.add(BigDecimal.valueOf(amount * RATE).setScale(Money.SCALE, RoundingMode.HALF_EVEN));
+        }
+        return total.doubleValue();
+    }
+
+    @Benchmark
+    public double minorUnits() {
+        long totalMinorUnits = 0L;
+        for (double amount : amounts) {
+            totalMinorUnits += Money.toMinorUnits(amount * RATE);
+        }
+        return Money.toMajorUnits(totalMinorUnits);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
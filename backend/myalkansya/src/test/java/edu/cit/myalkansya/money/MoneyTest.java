@@ -0,0 +1,66 @@
+package edu.cit.myalkansya.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void halfCentsFollowTheDecimalAmountNotItsBinaryValue() {
+        // 2.675 and 2.665 are held just below the half cent, 1.005 just below too
+        assertEquals(268, Money.toMinorUnits(2.675));
+        assertEquals(266, Money.toMinorUnits(2.665));
+        assertEquals(100, Money.toMinorUnits(1.005));
+        assertEquals(-268, Money.toMinorUnits(-2.675));
+    }
+
+    @Test
+    void exactHalfCentsRoundToEven() {
+        assertEquals(12, Money.toMinorUnits(0.125));
+        assertEquals(14, Money.toMinorUnits(0.135));
+        assertEquals(-12, Money.toMinorUnits(-0.125));
+    }
+
+    @Test
+    void largeAmountsAreRoundedExactly() {
+        assertEquals(100_000_000_000_000L, Money.toMinorUnits(1e12 + 0.005));
+        assertEquals(123_456_789_012L, Money.toMinorUnits(1_234_567_890.115));
+    }
+
+    @Test
+    void minorUnitsMatchBigDecimalHalfEven() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 200_000; i++) {
+            double amount = i % 2 == 0
+                    ? random.nextLong(-10_000_000_000L, 10_000_000_000L) / 1000.0
+                    : random.nextInt(1, 10_000_000) / 100.0 * 0.017_85;
+            long expected = BigDecimal.valueOf(amount).setScale(Money.SCALE, RoundingMode.HALF_EVEN)
+                    .unscaledValue().longValueExact();
+            assertEquals(expected, Money.toMinorUnits(amount), () -> String.valueOf(amount));
+        }
+    }
+
+    @Test
+    void convertRoundsTheProductOnce() {
+        // Rounding 0.004 to cents first would give 0.00
+        assertEquals(0.04, Money.convert(0.004, 10.0));
+        assertEquals(26.75, Money.convert(2.675, 10.0));
+    }
+
+    @Test
+    void convertedMinorUnitsTieToEven() {
+        assertEquals(2, Money.convertMinorUnits(5, 0.5));
+        assertEquals(8, Money.convertMinorUnits(15, 0.5));
+    }
+
+    @Test
+    void roundToCentsGivesTheNearestCent() {
+        assertEquals(2.68, Money.roundToCents(2.675));
+        assertEquals(0.1, Money.roundToCents(0.1 + 0.2 - 0.2));
+    }
+}
@@ -0,0 +1,164 @@
+package edu.cit.myalkansya.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Times a currency change for a user with 10k and 100k transactions: the
+ * set-based statements CurrencyConversionService runs, and for 10k also the
+ * old path of loading and saving every row twice. Slow, so it only runs with
+ * {@code mvn test -Dtest=CurrencyConversionBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CurrencyConversionBenchmarkTest extends MySqlRepositoryTest {
+
+    private static final Logger logger = Logger.getLogger(CurrencyConversionBenchmarkTest.class.getName());
+
+    private static final double RATE = 0.0178;
+    private static final double AMOUNT = 150.0;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private IncomeRepository incomeRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private SavingsGoalRepository savingsGoalRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CurrencyBalanceRepository currencyBalanceRepository;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000})
+    void setBasedConversion(int transactions) {
+        int userId = seedUser(transactions);
+
+        long started = System.nanoTime();
+        int rows = convertSetBased(userId);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        logger.info("Set-based conversion of " + transactions + " transactions: " + elapsedMs + " ms");
+        assertEquals(transactions + 24 + 3, rows);
+        assertConverted(userId, transactions);
+    }
+
+    @Test
+    void rowByRowConversionOf10k() {
+        int transactions = 10_000;
+        int userId = seedUser(transactions);
+
+        long started = System.nanoTime();
+        for (String table : new String[]{"incomes", "expenses"}) {
+            // First pass stored the originals, second pass converted, one save per row each time
+            List<Map<String, Object>> rows = jdbc.queryForList(
+                    "SELECT id, amount FROM " + table + " WHERE user_id = ?", userId);
+            for (Map<String, Object> row : rows) {
+                jdbc.update("UPDATE " + table + " SET original_amount = ?, original_currency = 'PHP' WHERE id = ?",
+                        row.get("amount"), row.get("id"));
+            }
+            rows = jdbc.queryForList("SELECT id, amount FROM " + table + " WHERE user_id = ?", userId);
+            for (Map<String, Object> row : rows) {
+                double converted = Math.round(((Number) row.get("amount")).doubleValue() * RATE * 100) / 100.0;
+                jdbc.update("UPDATE " + table + " SET amount = ?, currency = 'USD' WHERE id = ?",
+                        converted, row.get("id"));
+            }
+        }
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        int setBasedUserId = seedUser(transactions);
+        long setBasedStarted = System.nanoTime();
+        convertSetBased(setBasedUserId);
+        long setBasedMs = (System.nanoTime() - setBasedStarted) / 1_000_000;
+
+        logger.info("Conversion of " + transactions + " transactions: row-by-row " + elapsedMs
+                + " ms, set-based " + setBasedMs + " ms");
+        assertTrue(setBasedMs < elapsedMs);
+    }
+
+    // The statements of CurrencyConversionService.convertUserCurrency, returning the converted row count
+    private int convertSetBased(int userId) {
+        userRepository.lockTotalSavings(userId);
+        incomeRepository.storeOriginalAmounts(userId, "PHP");
+        expenseRepository.storeOriginalAmounts(userId, "PHP");
+        savingsGoalRepository.storeOriginalAmounts(userId, "PHP");
+        budgetRepository.storeOriginalAmounts(userId, "PHP");
+        userRepository.storeOriginalTotalSavings(userId, "PHP");
+        int rows = incomeRepository.convertAmounts(userId, "PHP", "USD", RATE)
+                + expenseRepository.convertAmounts(userId, "PHP", "USD", RATE)
+                + savingsGoalRepository.convertAmounts(userId, "PHP", "USD", RATE)
+                + budgetRepository.convertAmounts(userId, "PHP", "USD", RATE);
+        currencyBalanceRepository.deleteByUserId(userId);
+        currencyBalanceRepository.insertBalances(userId);
+        monthlyRollupRepository.deleteByUserId(userId);
+        monthlyRollupRepository.insertExpenseRollups(userId);
+        monthlyRollupRepository.insertIncomeRollups(userId);
+        return rows;
+    }
+
+    // One user in PHP with the given number of incomes and expenses over five years
+    private int seedUser(int transactions) {
+        jdbc.update("INSERT INTO users (firstname, email, provider_id, total_savings, currency) VALUES (?, ?, ?, 0, 'PHP')",
+                "Bench", "bench" + System.nanoTime() + "@example.com", "bench");
+        int userId = jdbc.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        List<Object[]> incomes = new ArrayList<>();
+        List<Object[]> expenses = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            LocalDate date = start.plusDays(i % 1825);
+            if (i % 4 == 0) {
+                incomes.add(new Object[]{userId, "Salary", date, AMOUNT});
+            } else {
+                expenses.add(new Object[]{userId, "Item " + i % 50, "Food", date, AMOUNT});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO incomes (user_id, source, date, amount, currency) VALUES (?, ?, ?, ?, 'PHP')", incomes);
+        jdbc.batchUpdate("INSERT INTO expenses (user_id, subject, category, date, amount, currency) " +
+                "VALUES (?, ?, ?, ?, ?, 'PHP')", expenses);
+
+        List<Object[]> budgets = new ArrayList<>();
+        for (int m = 0; m < 24; m++) {
+            budgets.add(new Object[]{userId, 5000.0, m % 12 + 1, 2023 + m / 12});
+        }
+        jdbc.batchUpdate("INSERT INTO budgets (user_id, category, monthly_budget, total_spent, budget_month, budget_year, currency) " +
+                "VALUES (?, 'Food', ?, 0, ?, ?, 'PHP')", budgets);
+        for (int g = 0; g < 3; g++) {
+            jdbc.update("INSERT INTO savings_goals (user_id, goal, target_amount, current_amount, target_date, currency) " +
+                    "VALUES (?, ?, 10000, 2500, '2030-01-01', 'PHP')", userId, "Goal " + g);
+        }
+        return userId;
+    }
+
+    private void assertConverted(int userId, int transactions) {
+        Double total = jdbc.queryForObject(
+                "SELECT SUM(amount) FROM expenses WHERE user_id = ? AND currency = 'USD'", Double.class, userId);
+        int expenses = transactions - (transactions + 3) / 4;
+        assertEquals(expenses * Math.round(AMOUNT * RATE * 100) / 100.0, total, 1e-6);
+    }
+}
@@ -0,0 +1,144 @@
+package edu.cit.myalkansya.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Runs the migrations against MySQL and checks with EXPLAIN that the SQL behind
+ * the repository finders is served by the composite indexes. A finder that
+ * goes back to YEAR()/MONTH() on a column, or an index dropped from a
+ * migration, shows up here as a different key or a full scan. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class IndexUsageExplainTest {
+
+    private static final int USERS = 20;
+    private static final String[] CATEGORIES = {"Food", "Transport", "Bills", "Health", "Leisure"};
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 1; u <= USERS; u++) {
+            users.add(new Object[]{u, "User" + u, "user" + u + "@example.com", "google-" + u});
+        }
+        jdbc.batchUpdate("INSERT INTO users (user_id, firstname, email, provider_id, total_savings, currency) " +
+                "VALUES (?, ?, ?, ?, 0, 'PHP')", users);
+
+        // Two years of daily-ish rows per user, so a month is a small slice of each user's data
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> incomes = new ArrayList<>();
+        List<Object[]> budgets = new ArrayList<>();
+        for (int u = 1; u <= USERS; u++) {
+            for (int d = 0; d < 730; d += 3) {
+                LocalDate date = start.plusDays(d);
+                String category = CATEGORIES[d % CATEGORIES.length];
+                expenses.add(new Object[]{u, "Subject " + (d % 17), category, date, 100.0});
+                if (d % 15 == 0) {
+                    incomes.add(new Object[]{u, "Salary", date, 1000.0});
+                }
+            }
+            for (int m = 0; m < 24; m++) {
+                for (String category : CATEGORIES) {
+                    budgets.add(new Object[]{u, category, 500.0, 0.0, m % 12 + 1, 2024 + m / 12});
+                }
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO expenses (user_id, subject, category, date, amount, currency) " +
+                "VALUES (?, ?, ?, ?, ?, 'PHP')", expenses);
+        jdbc.batchUpdate("INSERT INTO incomes (user_id, source, date, amount, currency) " +
+                "VALUES (?, ?, ?, ?, 'PHP')", incomes);
+        jdbc.batchUpdate("INSERT INTO budgets (user_id, category, monthly_budget, total_spent, budget_month, budget_year, currency) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 'PHP')", budgets);
+
+        jdbc.execute("ANALYZE TABLE users, expenses, incomes, budgets");
+    }
+
+    @Test
+    void expenseMonthRangeUsesUserDateIndex() {
+        assertUsesIndex("idx_expenses_user_date_id",
+                "SELECT * FROM expenses WHERE user_id = 7 AND date >= '2024-03-01' AND date < '2024-04-01'");
+    }
+
+    @Test
+    void expensePageUsesUserDateIndex() {
+        assertUsesIndex("idx_expenses_user_date_id",
+                "SELECT id, subject, category, date, amount, currency FROM expenses WHERE user_id = 7 " +
+                "AND (date < '2024-06-01' OR (date = '2024-06-01' AND id < 1000000) OR date IS NULL) " +
+                "ORDER BY date DESC, id DESC LIMIT 20");
+    }
+
+    @Test
+    void expenseCategorySubjectUsesCategorySubjectIndex() {
+        assertUsesIndex("idx_expenses_user_category_subject",
+                "SELECT * FROM expenses WHERE user_id = 7 AND category = 'Food' AND subject = 'Subject 3'");
+    }
+
+    @Test
+    void expenseCategoryMonthUsesCategoryDateIndex() {
+        assertUsesIndex("idx_expenses_user_category_date",
+                "SELECT COALESCE(SUM(amount), 0) FROM expenses WHERE user_id = 7 AND category = 'Food' " +
+                "AND date >= '2024-03-01' AND date < '2024-04-01'");
+    }
+
+    @Test
+    void incomeMonthRangeUsesUserDateIndex() {
+        assertUsesIndex("idx_incomes_user_date_id",
+                "SELECT * FROM incomes WHERE user_id = 7 AND date >= '2024-03-01' AND date < '2024-04-01'");
+    }
+
+    @Test
+    void budgetMonthUsesUserYearMonthIndex() {
+        assertUsesIndex("idx_budgets_user_year_month_category",
+                "SELECT * FROM budgets WHERE user_id = 7 AND budget_year = 2024 AND budget_month = 3");
+    }
+
+    @Test
+    void budgetSlotLookupUsesUserYearMonthIndex() {
+        assertUsesIndex("idx_budgets_user_year_month_category",
+                "SELECT * FROM budgets WHERE user_id = 7 AND category = 'Food' AND budget_month = 3 AND budget_year = 2024");
+    }
+
+    @Test
+    void budgetCategoryUsesUserCategoryIndex() {
+        assertUsesIndex("idx_budgets_user_category",
+                "SELECT * FROM budgets WHERE user_id = 7 AND category = 'Bills'");
+    }
+
+    @Test
+    void googleSignInUsesProviderIdIndex() {
+        assertUsesIndex("idx_users_provider_id",
+                "SELECT * FROM users WHERE provider_id = 'google-7'");
+    }
+
+    private static void assertUsesIndex(String expectedIndex, String sql) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql);
+        Map<String, Object> row = plan.get(0);
+        assertNotEquals("ALL", row.get("type"), () -> "Full table scan for: " + sql + "\n" + plan);
+        assertEquals(expectedIndex, row.get("key"), () -> "Unexpected plan for: " + sql + "\n" + plan);
+    }
+}
@@ -0,0 +1,138 @@
+package edu.cit.myalkansya.repository;
+
+import edu.cit.myalkansya.dto.BalanceDrift;
+import edu.cit.myalkansya.dto.CategorySummaryDTO;
+import edu.cit.myalkansya.dto.CurrencyTotal;
+import edu.cit.myalkansya.dto.MonthlyIncomeExpense;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity.EntryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The ON DUPLICATE KEY upserts and in-database increments behind the
+ * balance ledger, currency balances and monthly rollups, run against MySQL.
+ */
+class NativeUpsertRepositoryTest extends MySqlRepositoryTest {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MonthlyRollupRepository monthlyRollupRepository;
+
+    @Autowired
+    private CurrencyBalanceRepository currencyBalanceRepository;
+
+    @Autowired
+    private BalanceLedgerRepository balanceLedgerRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private int userId;
+
+    @BeforeEach
+    void createUser() {
+        jdbc.update("INSERT INTO users (firstname, email, total_savings, currency) VALUES ('Juan', ?, 0, 'PHP')",
+                "juan" + System.nanoTime() + "@example.com");
+        userId = jdbc.queryForObject("SELECT LAST_INSERT_ID()", Integer.class);
+    }
+
+    @Test
+    void rollupDeltasAccumulateInOneRowPerBucket() {
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "EXPENSE", "Food", 0, 120.50, 0, 1);
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "EXPENSE", "Food", 0, 79.50, 0, 1);
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "EXPENSE", "Transport", 0, 40.0, 0, 1);
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "INCOME", "", 1000.0, 0, 1, 0);
+        // A deleted expense is a negative delta on the same bucket
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "EXPENSE", "Transport", 0, -40.0, 0, -1);
+
+        assertEquals(3, countRows("monthly_rollups"));
+        Map<String, Double> byCategory = monthlyRollupRepository.sumByCategory(userId, 2024, 3).stream()
+                .collect(Collectors.toMap(CategorySummaryDTO::getCategory, CategorySummaryDTO::getAmount));
+        assertEquals(Map.of("Food", 200.0), byCategory);
+
+        List<MonthlyIncomeExpense> month = monthlyRollupRepository.sumForMonth(userId, 2024, 3);
+        assertEquals(1, month.size());
+        assertEquals(1000.0, month.get(0).getIncome(), 1e-9);
+        assertEquals(200.0, month.get(0).getExpenses(), 1e-9);
+    }
+
+    @Test
+    void incomeBucketDoesNotCollideWithAnExpenseCategoryNamedLikeIt() {
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "INCOME", "", 500.0, 0, 1, 0);
+        monthlyRollupRepository.addDelta(userId, 2024, 3, "EXPENSE", "", 0, 25.0, 0, 1);
+
+        assertEquals(2, countRows("monthly_rollups"));
+    }
+
+    @Test
+    void currencyBalanceDeltasAccumulatePerCurrency() {
+        currencyBalanceRepository.addDelta(userId, "PHP", 1000.0);
+        currencyBalanceRepository.addDelta(userId, "PHP", -250.25);
+        currencyBalanceRepository.addDelta(userId, "USD", 20.0);
+
+        Map<String, Double> totals = currencyBalanceRepository.findTotalsByUserId(userId).stream()
+                .collect(Collectors.toMap(CurrencyTotal::getCurrency, CurrencyTotal::getTotal));
+        assertEquals(2, totals.size());
+        assertEquals(749.75, totals.get("PHP"), 1e-9);
+        assertEquals(20.0, totals.get("USD"), 1e-9);
+    }
+
+    @Test
+    void rebuiltBalancesMatchTheTransactionTables() {
+        jdbc.update("INSERT INTO incomes (user_id, source, date, amount, currency) VALUES (?, 'Salary', '2024-03-01', 1000, 'PHP')", userId);
+        jdbc.update("INSERT INTO expenses (user_id, subject, category, date, amount, currency) VALUES (?, 'Lunch', 'Food', '2024-03-02', 150, 'PHP')", userId);
+        jdbc.update("INSERT INTO expenses (user_id, subject, category, date, amount, currency) VALUES (?, 'Book', 'Leisure', '2024-03-03', 10, 'USD')", userId);
+        currencyBalanceRepository.addDelta(userId, "PHP", 12345.0);
+
+        currencyBalanceRepository.deleteByUserId(userId);
+        currencyBalanceRepository.insertBalances(userId);
+
+        Map<String, Double> totals = currencyBalanceRepository.findTotalsByUserId(userId).stream()
+                .collect(Collectors.toMap(CurrencyTotal::getCurrency, CurrencyTotal::getTotal));
+        assertEquals(850.0, totals.get("PHP"), 1e-9);
+        assertEquals(-10.0, totals.get("USD"), 1e-9);
+    }
+
+    @Test
+    void ledgerSumAndBalanceIncrementAgree() {
+        balanceLedgerRepository.save(new BalanceLedgerEntity(userId, 1000.0, EntryType.INCOME, 1));
+        userRepository.addToTotalSavings(userId, 1000.0);
+        balanceLedgerRepository.save(new BalanceLedgerEntity(userId, -150.0, EntryType.EXPENSE, 2));
+        userRepository.addToTotalSavings(userId, -150.0);
+        balanceLedgerRepository.flush();
+
+        assertEquals(850.0, balanceLedgerRepository.sumByUserId(userId), 1e-9);
+        assertEquals(850.0, userRepository.lockTotalSavings(userId).orElseThrow(), 1e-9);
+        assertTrue(balanceLedgerRepository.findDrift(userId, userId, 0.005).isEmpty());
+    }
+
+    @Test
+    void driftIsReportedWhenTheBalanceWasWrittenAroundTheLedger() {
+        balanceLedgerRepository.save(new BalanceLedgerEntity(userId, 1000.0, EntryType.INCOME, 1));
+        balanceLedgerRepository.flush();
+        jdbc.update("UPDATE users SET total_savings = 900 WHERE user_id = ?", userId);
+
+        List<BalanceDrift> drift = balanceLedgerRepository.findDrift(userId, userId, 0.005);
+
+        assertEquals(1, drift.size());
+        assertEquals(userId, drift.get(0).getUserId());
+        assertEquals(900.0, drift.get(0).getTotalSavings(), 1e-9);
+        assertEquals(1000.0, drift.get(0).getLedgerTotal(), 1e-9);
+    }
+
+    private int countRows(String table) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Integer.class, userId);
+    }
+}
@@ -0,0 +1,124 @@
+package edu.cit.myalkansya.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for Google's certs endpoint. Serves the "trusted" certificate
+ * from src/test/resources/fixtures/google-certs/keys.p12 in the same JSON
+ * shape and with the same Cache-Control header as
+ * https://www.googleapis.com/oauth2/v1/certs, and signs ID tokens with either
+ * the trusted key or a "rogue" key that the endpoint never publishes.
+ */
+public class GoogleCertsStub implements AutoCloseable {
+
+    public static final String CLIENT_ID = "test-client.apps.googleusercontent.com";
+    public static final String TRUSTED_KEY = "trusted";
+    public static final String ROGUE_KEY = "rogue";
+
+    private static final String KEYSTORE = "/fixtures/google-certs/keys.p12";
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+
+    private final KeyStore keyStore;
+    private final HttpServer server;
+    private final AtomicInteger certRequests = new AtomicInteger();
+    private volatile long maxAgeSeconds = 3600;
+
+    public GoogleCertsStub() throws IOException, GeneralSecurityException {
+        keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = GoogleCertsStub.class.getResourceAsStream(KEYSTORE)) {
+            keyStore.load(in, KEYSTORE_PASSWORD);
+        }
+        byte[] body = new ObjectMapper().writeValueAsBytes(
+                Map.of(TRUSTED_KEY, pem(keyStore.getCertificate(TRUSTED_KEY))));
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/oauth2/v1/certs", exchange -> {
+            certRequests.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+            exchange.getResponseHeaders().set("Cache-Control", "public, max-age=" + maxAgeSeconds);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public String getCertsUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/oauth2/v1/certs";
+    }
+
+    // A keys manager wired the way SecurityConfig wires the real one, pointed at this stub
+    public GooglePublicKeysManager newKeysManager() {
+        return new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(getCertsUrl())
+                .build();
+    }
+
+    public void setMaxAgeSeconds(long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    public int getCertRequests() {
+        return certRequests.get();
+    }
+
+    // An ID token for CLIENT_ID valid for the next hour
+    public String signToken(String keyAlias, String audience, String email) {
+        long now = System.currentTimeMillis() / 1000;
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+                .setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setSubject("google-" + email)
+                .setIssuedAtTimeSeconds(now)
+                .setExpirationTimeSeconds(now + 3600)
+                .setEmail(email);
+        payload.set("given_name", "Juan");
+        payload.set("family_name", "Dela Cruz");
+        payload.set("picture", "https://example.com/" + email + ".jpg");
+        JsonWebSignature.Header header = new JsonWebSignature.Header()
+                .setAlgorithm("RS256")
+                .setType("JWT")
+                .setKeyId(keyAlias);
+        try {
+            PrivateKey key = (PrivateKey) keyStore.getKey(keyAlias, KEYSTORE_PASSWORD);
+            return JsonWebSignature.signUsingRsaSha256(key, GsonFactory.getDefaultInstance(), header, payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String pem(Certificate certificate) throws GeneralSecurityException {
+        String base64 = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII))
+                .encodeToString(certificate.getEncoded());
+        return "-----BEGIN CERTIFICATE-----\n" + base64 + "\n-----END CERTIFICATE-----\n";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,96 @@
+package edu.cit.myalkansya.security;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import edu.cit.myalkansya.dto.GoogleUserDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Verifies ID tokens signed with local test keys against certificates served
+ * by {@link GoogleCertsStub}, so nothing here talks to Google.
+ */
+class GoogleTokenVerifierTest {
+
+    private GoogleCertsStub certs;
+    private GoogleIdTokenVerifier idTokenVerifier;
+    private GoogleTokenVerifier tokenVerifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        certs = new GoogleCertsStub();
+        idTokenVerifier = Mockito.spy(new GoogleIdTokenVerifier.Builder(certs.newKeysManager())
+                .setAudience(List.of(GoogleCertsStub.CLIENT_ID))
+                .build());
+        tokenVerifier = new GoogleTokenVerifier(idTokenVerifier, 100, 120);
+    }
+
+    @AfterEach
+    void tearDown() {
+        certs.close();
+    }
+
+    @Test
+    void validTokenYieldsTheGoogleUser() {
+        String token = certs.signToken(GoogleCertsStub.TRUSTED_KEY, GoogleCertsStub.CLIENT_ID, "juan@example.com");
+
+        GoogleUserDTO user = tokenVerifier.verifyGoogleToken(token);
+
+        assertNotNull(user);
+        assertEquals("juan@example.com", user.getEmail());
+        assertEquals("Juan", user.getFirstname());
+        assertEquals("Dela Cruz", user.getLastname());
+        assertEquals("google-juan@example.com", user.getProviderId());
+    }
+
+    @Test
+    void certificatesAreFetchedOnceWithinTheirMaxAge() {
+        for (int i = 0; i < 5; i++) {
+            String token = certs.signToken(GoogleCertsStub.TRUSTED_KEY, GoogleCertsStub.CLIENT_ID, "user" + i + "@example.com");
+            assertNotNull(tokenVerifier.verifyGoogleToken(token));
+        }
+        assertEquals(1, certs.getCertRequests());
+    }
+
+    @Test
+    void repeatedTokenIsVerifiedOnce() throws Exception {
+        String token = certs.signToken(GoogleCertsStub.TRUSTED_KEY, GoogleCertsStub.CLIENT_ID, "juan@example.com");
+
+        GoogleUserDTO first = tokenVerifier.verifyGoogleToken(token);
+        GoogleUserDTO second = tokenVerifier.verifyGoogleToken(token);
+
+        assertEquals(first.getEmail(), second.getEmail());
+        verify(idTokenVerifier, times(1)).verify(anyString());
+    }
+
+    @Test
+    void tokenSignedWithAnUnpublishedKeyIsRejectedAndNotCached() throws Exception {
+        String token = certs.signToken(GoogleCertsStub.ROGUE_KEY, GoogleCertsStub.CLIENT_ID, "mallory@example.com");
+
+        assertNull(tokenVerifier.verifyGoogleToken(token));
+        assertNull(tokenVerifier.verifyGoogleToken(token));
+        verify(idTokenVerifier, times(2)).verify(anyString());
+    }
+
+    @Test
+    void tokenForAnotherClientIsRejected() {
+        String token = certs.signToken(GoogleCertsStub.TRUSTED_KEY, "other-client.apps.googleusercontent.com", "juan@example.com");
+
+        assertNull(tokenVerifier.verifyGoogleToken(token));
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertNull(tokenVerifier.verifyGoogleToken("not-a-jwt"));
+    }
+}
@@ -0,0 +1,122 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.entity.BalanceLedgerEntity;
+import edu.cit.myalkansya.entity.BalanceLedgerEntity.EntryType;
+import edu.cit.myalkansya.repository.BalanceLedgerRepository;
+import edu.cit.myalkansya.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceLedgerServiceTest {
+
+    private static final int USER_ID = 7;
+
+    @Mock
+    private BalanceLedgerRepository balanceLedgerRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private BalanceLedgerService balanceLedgerService;
+
+    @Test
+    void recordAppendsAnEntryAndIncrementsTheBalance() {
+        when(userRepository.addToTotalSavings(USER_ID, -250.0)).thenReturn(1);
+
+        balanceLedgerService.record(USER_ID, -250.0, EntryType.EXPENSE, 42);
+
+        BalanceLedgerEntity entry = savedEntry();
+        assertEquals(USER_ID, entry.getUserId());
+        assertEquals(-250.0, entry.getAmount());
+        assertEquals(EntryType.EXPENSE, entry.getEntryType());
+        assertEquals(42, entry.getReferenceId());
+        verify(userRepository).addToTotalSavings(USER_ID, -250.0);
+    }
+
+    @Test
+    void recordOfZeroWritesNothing() {
+        balanceLedgerService.record(USER_ID, 0.0, EntryType.INCOME_ADJUSTMENT, 42);
+
+        verifyNoInteractions(balanceLedgerRepository, userRepository);
+    }
+
+    @Test
+    void recordForMissingUserFails() {
+        when(userRepository.addToTotalSavings(USER_ID, 100.0)).thenReturn(0);
+
+        assertThrows(NoSuchElementException.class,
+                () -> balanceLedgerService.record(USER_ID, 100.0, EntryType.INCOME, 1));
+    }
+
+    @Test
+    void rebaseRecordsTheDifferenceToTheLockedBalance() {
+        when(userRepository.lockTotalSavings(USER_ID)).thenReturn(Optional.of(5625.0));
+
+        balanceLedgerService.rebase(USER_ID, 100.0, "USD");
+
+        BalanceLedgerEntity entry = savedEntry();
+        assertEquals(100.0 - 5625.0, entry.getAmount());
+        assertEquals(EntryType.CURRENCY_CHANGE, entry.getEntryType());
+        assertNull(entry.getReferenceId());
+        verify(userRepository).updateTotalSavings(USER_ID, 100.0, "USD");
+    }
+
+    @Test
+    void rebaseOfMissingUserFails() {
+        when(userRepository.lockTotalSavings(USER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> balanceLedgerService.rebase(USER_ID, 100.0, "USD"));
+        verifyNoInteractions(balanceLedgerRepository);
+    }
+
+    @Test
+    void driftBeyondToleranceIsCorrectedToTheLedgerSum() {
+        when(userRepository.lockTotalSavings(USER_ID)).thenReturn(Optional.of(900.0));
+        when(balanceLedgerRepository.sumByUserId(USER_ID)).thenReturn(1000.0);
+
+        assertEquals(100.0, balanceLedgerService.correctDrift(USER_ID, 0.005), 1e-9);
+        verify(userRepository).addToTotalSavings(USER_ID, 100.0);
+    }
+
+    @Test
+    void driftWithinToleranceIsLeftAlone() {
+        when(userRepository.lockTotalSavings(USER_ID)).thenReturn(Optional.of(1000.004));
+        when(balanceLedgerRepository.sumByUserId(USER_ID)).thenReturn(1000.0);
+
+        assertEquals(0.0, balanceLedgerService.correctDrift(USER_ID, 0.005));
+        verify(userRepository, never()).addToTotalSavings(anyInt(), anyDouble());
+    }
+
+    @Test
+    void driftOfDeletedUserIsIgnored() {
+        when(userRepository.lockTotalSavings(USER_ID)).thenReturn(Optional.empty());
+
+        assertEquals(0.0, balanceLedgerService.correctDrift(USER_ID, 0.005));
+        verifyNoInteractions(balanceLedgerRepository);
+    }
+
+    private BalanceLedgerEntity savedEntry() {
+        ArgumentCaptor<BalanceLedgerEntity> captor = ArgumentCaptor.forClass(BalanceLedgerEntity.class);
+        verify(balanceLedgerRepository).save(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,157 @@
+package edu.cit.myalkansya.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers the rate cache from many threads against a slow source and checks
+ * that a cold cache and an expired entry each cost exactly one upstream fetch.
+ */
+class ExchangeRateConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int ROUNDS = 20;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesShareOneFetch() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            SlowSource source = new SlowSource(Duration.ofMillis(100));
+            ExchangeRateService service = new ExchangeRateService(source);
+
+            List<Double> rates = callAll(service, "PHP", "EUR");
+
+            assertEquals(1, source.fetches.get(), "round " + round);
+            for (double rate : rates) {
+                assertEquals(0.92 / 56.25, rate, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void staleTableIsServedWhileOneRefreshRuns() throws Exception {
+        FakeTicker ticker = new FakeTicker();
+        SlowSource source = new SlowSource(Duration.ZERO);
+        ExchangeRateService service = new ExchangeRateService(source, ticker);
+        assertEquals(0.92, service.getExchangeRate("USD", "EUR"), 1e-12);
+
+        // The next fetch returns a new EUR rate but is held until released
+        CountDownLatch release = new CountDownLatch(1);
+        source.holdNextFetch(release, 0.95);
+        ticker.advance(Duration.ofMinutes(61));
+
+        long started = System.nanoTime();
+        for (double rate : callAll(service, "USD", "EUR")) {
+            assertEquals(0.92, rate, 1e-12);
+        }
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5), "callers waited on the refresh");
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getExchangeRate("USD", "EUR") != 0.95 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0.95, service.getExchangeRate("USD", "EUR"), 1e-12);
+        assertEquals(2, source.fetches.get());
+    }
+
+    // Every caller thread asks for the same pair at once
+    private List<Double> callAll(ExchangeRateService service, String from, String to) throws Exception {
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<Double>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(callers.submit(() -> {
+                start.await();
+                return service.getExchangeRate(from, to);
+            }));
+        }
+        List<Double> rates = new ArrayList<>();
+        for (Future<Double> future : futures) {
+            rates.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return rates;
+    }
+
+    // Serves the USD fixture after a delay, counting fetches
+    private static final class SlowSource implements ExchangeRateSource {
+
+        private final Duration delay;
+        private final AtomicInteger fetches = new AtomicInteger();
+        private volatile CountDownLatch hold;
+        private volatile Double nextEurRate;
+
+        SlowSource(Duration delay) {
+            this.delay = delay;
+        }
+
+        void holdNextFetch(CountDownLatch release, double eurRate) {
+            this.nextEurRate = eurRate;
+            this.hold = release;
+        }
+
+        @Override
+        public RateSnapshot fetchRates(String baseCurrency) {
+            fetches.incrementAndGet();
+            try {
+                Thread.sleep(delay.toMillis());
+                CountDownLatch latch = hold;
+                if (latch != null) {
+                    latch.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            RateSnapshot snapshot = FixtureExchangeRateSource.load(baseCurrency);
+            if (nextEurRate == null) {
+                return snapshot;
+            }
+            Map<String, Double> rates = new HashMap<>(snapshot.ratesFrom(baseCurrency));
+            rates.put("EUR", nextEurRate);
+            return new RateSnapshot(baseCurrency, rates);
+        }
+
+        @Override
+        public Map<String, Object> testConnection() {
+            return Map.of("status", "success");
+        }
+    }
+
+    private static final class FakeTicker implements Ticker {
+
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.repository.ExchangeRateHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Exchange rates and trends computed from the recorded USD fixture instead of
+ * the upstream API, with history kept in the buffer of a real RateHistoryService.
+ */
+class ExchangeRateServiceTest {
+
+    private static final String USD = ExchangeRateService.BASE_CURRENCY;
+
+    private final FixtureExchangeRateSource rateSource = new FixtureExchangeRateSource();
+    private RateHistoryService rateHistoryService;
+    private ExchangeRateService exchangeRateService;
+
+    @BeforeEach
+    void setUp() {
+        rateHistoryService = new RateHistoryService();
+        ReflectionTestUtils.setField(rateHistoryService, "exchangeRateHistoryRepository",
+                Mockito.mock(ExchangeRateHistoryRepository.class));
+        rateHistoryService.loadRecentDays(LocalDate.now());
+
+        exchangeRateService = new ExchangeRateService(rateSource);
+        ReflectionTestUtils.setField(exchangeRateService, "rateHistoryService", rateHistoryService);
+    }
+
+    @Test
+    void crossRatesComeFromOneCachedTable() {
+        assertEquals(56.25 / 0.92, exchangeRateService.getExchangeRate("eur", "php"), 1e-9);
+        assertEquals(0.79, exchangeRateService.getExchangeRate("USD", "GBP"), 1e-12);
+        assertEquals(1, rateSource.getFetches());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trendsAreComputedFromStoredHistory() {
+        LocalDate today = LocalDate.now();
+        rateHistoryService.recordSnapshot(today.minusDays(7), scaledFixture("EUR", 0.90));
+
+        Map<String, Object> trends = exchangeRateService.getCurrencyTrends("USD", "EUR");
+
+        Map<String, Object> week = (Map<String, Object>) trends.get("7days");
+        assertEquals(0.92, (double) trends.get("currentRate"), 1e-12);
+        assertEquals(0.90, (double) week.get("historicalRate"), 1e-12);
+        assertEquals(2.22, (double) week.get("changePercent"), 1e-12);
+        assertEquals(0.90, exchangeRateService.getHistoricalRates("USD", 7).get("EUR"), 1e-12);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trendWithoutHistoryReportsNoChange() {
+        Map<String, Object> trends = exchangeRateService.getCurrencyTrends("USD", "JPY");
+
+        Map<String, Object> quarter = (Map<String, Object>) trends.get("90days");
+        assertEquals(151.5, (double) quarter.get("historicalRate"), 1e-12);
+        assertEquals(0.0, (double) quarter.get("changePercent"), 1e-12);
+    }
+
+    // The fixture table with one currency's rate replaced
+    private static RateSnapshot scaledFixture(String currency, double rate) {
+        Map<String, Double> rates = new HashMap<>(FixtureExchangeRateSource.load(USD).ratesFrom(USD));
+        rates.put(currency, rate);
+        return new RateSnapshot(USD, rates);
+    }
+}
@@ -0,0 +1,48 @@
+package edu.cit.myalkansya.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for the upstream API in tests. Serves recorded API responses from
+ * src/test/resources/fixtures/exchange-rates/&lt;BASE&gt;.json, parsed by the same
+ * code as live responses.
+ */
+public class FixtureExchangeRateSource implements ExchangeRateSource {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    public static RateSnapshot load(String baseCurrency) {
+        String path = "/fixtures/exchange-rates/" + baseCurrency + ".json";
+        try (InputStream in = FixtureExchangeRateSource.class.getResourceAsStream(path)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No exchange rate fixture " + path);
+            }
+            return ExchangeRateApiClient.parseRates(baseCurrency, OBJECT_MAPPER.readTree(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public RateSnapshot fetchRates(String baseCurrency) {
+        fetches.incrementAndGet();
+        return load(baseCurrency);
+    }
+
+    @Override
+    public Map<String, Object> testConnection() {
+        return Map.of("status", "success", "source", "fixture");
+    }
+
+    public int getFetches() {
+        return fetches.get();
+    }
+}
@@ -0,0 +1,126 @@
+package edu.cit.myalkansya.service;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageThumbnailsTest {
+
+    @Test
+    void landscapeImageIsCroppedToACentredSquare() throws IOException {
+        // Red left third, green centre, blue right third
+        BufferedImage source = new BufferedImage(900, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = source.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 300, 300);
+        graphics.setColor(Color.GREEN);
+        graphics.fillRect(300, 0, 300, 300);
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(600, 0, 300, 300);
+        graphics.dispose();
+
+        BufferedImage thumbnail = decode(ImageThumbnails.render(source, 64));
+
+        assertEquals(64, thumbnail.getWidth());
+        assertEquals(64, thumbnail.getHeight());
+        Color centre = new Color(thumbnail.getRGB(32, 32));
+        assertTrue(centre.getGreen() > 200 && centre.getRed() < 60 && centre.getBlue() < 60, centre.toString());
+    }
+
+    @Test
+    void largeImageIsScaledDownToTheRequestedSize() throws IOException {
+        BufferedImage thumbnail = decode(ImageThumbnails.render(solid(1200, 1600, Color.ORANGE), 256));
+
+        assertEquals(256, thumbnail.getWidth());
+        assertEquals(256, thumbnail.getHeight());
+    }
+
+    @Test
+    void smallImageIsNeverUpscaled() throws IOException {
+        BufferedImage thumbnail = decode(ImageThumbnails.render(solid(80, 120, Color.ORANGE), 256));
+
+        assertEquals(80, thumbnail.getWidth());
+        assertEquals(80, thumbnail.getHeight());
+    }
+
+    @Test
+    void transparentPixelsBecomeWhite() throws IOException {
+        BufferedImage source = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB);
+
+        Color pixel = new Color(decode(ImageThumbnails.render(source, 50)).getRGB(25, 25));
+
+        assertTrue(pixel.getRed() > 240 && pixel.getGreen() > 240 && pixel.getBlue() > 240, pixel.toString());
+    }
+
+    @Test
+    void readSubsamplesLargeImagesButKeepsTwiceTheTarget() throws IOException {
+        BufferedImage decoded = ImageThumbnails.read(
+                new ByteArrayInputStream(png(solid(2000, 1000, Color.BLUE))), 24_000_000, 100);
+
+        // Short side 1000 over twice the target of 100 gives every 5th pixel
+        assertEquals(400, decoded.getWidth());
+        assertEquals(200, decoded.getHeight());
+        assertTrue(Math.min(decoded.getWidth(), decoded.getHeight()) >= 200);
+    }
+
+    @Test
+    void readKeepsSmallImagesAtFullSize() throws IOException {
+        BufferedImage decoded = ImageThumbnails.read(
+                new ByteArrayInputStream(png(solid(300, 200, Color.BLUE))), 24_000_000, 256);
+
+        assertEquals(300, decoded.getWidth());
+        assertEquals(200, decoded.getHeight());
+    }
+
+    @Test
+    void readRejectsImagesOverThePixelCap() throws IOException {
+        byte[] image = png(solid(1000, 1000, Color.BLUE));
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> ImageThumbnails.read(new ByteArrayInputStream(image), 999_999, 256));
+        assertEquals("Image dimensions are too large", error.getMessage());
+    }
+
+    @Test
+    void readRejectsNonImages() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ImageThumbnails.read(new ByteArrayInputStream("not an image".getBytes()), 24_000_000, 256));
+    }
+
+    @Test
+    void subsamplingFollowsTheShortSide() {
+        assertEquals(1, ImageThumbnails.subsamplingFor(512, 512, 256));
+        assertEquals(1, ImageThumbnails.subsamplingFor(1023, 4000, 256));
+        assertEquals(2, ImageThumbnails.subsamplingFor(1024, 4000, 256));
+        assertEquals(11, ImageThumbnails.subsamplingFor(6000, 4000, 180));
+    }
+
+    private static BufferedImage solid(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+
+    private static BufferedImage decode(byte[] jpeg) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+}
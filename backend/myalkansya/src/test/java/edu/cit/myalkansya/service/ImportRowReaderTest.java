@@ -0,0 +1,130 @@
+package edu.cit.myalkansya.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportRowReaderTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void csvRowsAreKeyedByLowerCasedHeader() throws IOException {
+        ImportRowReader reader = csv("Type,Date,Amount\nEXPENSE,2024-03-01,150.25\n");
+
+        assertEquals(Map.of("type", "EXPENSE", "date", "2024-03-01", "amount", "150.25"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedCsvValuesKeepCommasAndEscapedQuotes() throws IOException {
+        ImportRowReader reader = csv("type,description,category\n"
+                + "EXPENSE,\"Dinner, with \"\"friends\"\"\",Food\n");
+
+        Map<String, String> row = reader.next();
+        assertEquals("Dinner, with \"friends\"", row.get("description"));
+        assertEquals("Food", row.get("category"));
+    }
+
+    @Test
+    void emptyQuotedValueIsEmpty() throws IOException {
+        ImportRowReader reader = csv("type,description,amount\nINCOME,\"\",10\n");
+
+        assertEquals("", reader.next().get("description"));
+    }
+
+    @Test
+    void shortCsvRowLeavesTrailingColumnsOut() throws IOException {
+        ImportRowReader reader = csv("type,amount,currency\nINCOME,10\n");
+
+        Map<String, String> row = reader.next();
+        assertEquals("10", row.get("amount"));
+        assertFalse(row.containsKey("currency"));
+    }
+
+    @Test
+    void lineNumbersCountHeaderAndBlankLines() throws IOException {
+        ImportRowReader reader = csv("type,amount\n\nINCOME,10\n   \nEXPENSE,5\n");
+
+        reader.next();
+        assertEquals(3, reader.getLineNumber());
+        reader.next();
+        assertEquals(5, reader.getLineNumber());
+    }
+
+    @Test
+    void errorsNameTheLine() throws IOException {
+        ImportRowReader reader = csv("type,amount\nINCOME,10\nEXPENSE,\"unterminated\n");
+        reader.next();
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("Line 3: unterminated quoted value", error.getMessage());
+    }
+
+    @Test
+    void extraCsvValuesAreRejected() {
+        ImportRowReader reader = csv("type,amount\nINCOME,10,PHP\n");
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, reader::next);
+        assertEquals("Line 2: more values than header columns", error.getMessage());
+    }
+
+    @Test
+    void byteOrderMarkIsStrippedFromTheHeader() throws IOException {
+        ImportRowReader reader = csv("\uFEFFType,Amount\nINCOME,10\n");
+
+        assertEquals("INCOME", reader.next().get("type"));
+    }
+
+    @Test
+    void ndjsonRowsSkipNullsAndLowerCaseNames() throws IOException {
+        ImportRowReader reader = ndjson("{\"Type\":\"INCOME\",\"amount\":10.5,\"category\":null}\n\n{\"type\":\"EXPENSE\"}\n");
+
+        assertEquals(Map.of("type", "INCOME", "amount", "10.5"), reader.next());
+        assertEquals(1, reader.getLineNumber());
+        assertEquals(Map.of("type", "EXPENSE"), reader.next());
+        assertEquals(3, reader.getLineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void ndjsonErrorsNameTheLine() throws IOException {
+        ImportRowReader reader = ndjson("{\"type\":\"INCOME\"}\n[1,2]\n{broken\n");
+        reader.next();
+
+        assertEquals("Line 2: expected a JSON object",
+                assertThrows(IllegalArgumentException.class, reader::next).getMessage());
+        assertEquals("Line 3: invalid JSON",
+                assertThrows(IllegalArgumentException.class, reader::next).getMessage());
+    }
+
+    @Test
+    void formatFollowsTheContentType() {
+        assertEquals(ImportRowReader.Format.CSV, ImportRowReader.formatOf("text/csv; charset=utf-8"));
+        assertEquals(ImportRowReader.Format.NDJSON, ImportRowReader.formatOf("application/x-ndjson"));
+        assertEquals(ImportRowReader.Format.NDJSON, ImportRowReader.formatOf("application/jsonl"));
+        assertThrows(IllegalArgumentException.class, () -> ImportRowReader.formatOf("application/json"));
+        assertThrows(IllegalArgumentException.class, () -> ImportRowReader.formatOf(null));
+    }
+
+    private static ImportRowReader csv(String body) {
+        return reader(body, ImportRowReader.Format.CSV);
+    }
+
+    private static ImportRowReader ndjson(String body) {
+        return reader(body, ImportRowReader.Format.NDJSON);
+    }
+
+    private static ImportRowReader reader(String body, ImportRowReader.Format format) {
+        return new ImportRowReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, OBJECT_MAPPER);
+    }
+}
@@ -0,0 +1,95 @@
+package edu.cit.myalkansya.service;
+
+import edu.cit.myalkansya.entity.ExchangeRateHistoryEntity;
+import edu.cit.myalkansya.repository.ExchangeRateHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateHistoryServiceTest {
+
+    private static final String USD = ExchangeRateService.BASE_CURRENCY;
+
+    @Mock
+    private ExchangeRateHistoryRepository repository;
+
+    @InjectMocks
+    private RateHistoryService rateHistoryService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void recordSnapshotUpsertsThePackedTable() {
+        RateSnapshot snapshot = FixtureExchangeRateSource.load(USD);
+
+        rateHistoryService.recordSnapshot(today, snapshot);
+
+        verify(repository).upsert(today, USD, snapshot.getPackedCodes(), snapshot.getPackedRates());
+        // Served from the buffer from now on
+        assertTrue(rateHistoryService.hasSnapshot(today));
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void dailyRatesIncludeDaysStoredAfterTheBufferWasLoaded() {
+        ExchangeRateHistoryEntity tenDaysAgo = row(today.minusDays(10), 0.90);
+        ExchangeRateHistoryEntity fiveDaysAgo = row(today.minusDays(5), 0.91);
+        when(repository.findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(eq(USD), any(), any()))
+                .thenReturn(List.of(tenDaysAgo))                // loadRecentDays
+                .thenReturn(List.of(tenDaysAgo, fiveDaysAgo))   // stored since by another instance
+                .thenReturn(List.of());
+
+        rateHistoryService.loadRecentDays(today);
+        List<LocalDate> first = dates(rateHistoryService.getDailyRates(today.minusDays(90), today));
+        List<LocalDate> second = dates(rateHistoryService.getDailyRates(today.minusDays(90), today));
+
+        assertEquals(List.of(today.minusDays(10), today.minusDays(5)), first);
+        assertEquals(first, second);
+        // Past days found empty are not queried again; only today, which may still be stored, is
+        verify(repository, times(2)).findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(USD, today.minusDays(90), today);
+        verify(repository).findByBaseCurrencyAndRateDateBetweenOrderByRateDateAsc(USD, today, today);
+    }
+
+    @Test
+    void ratesOnADayWithoutATableUseTheLatestEarlierTable() {
+        LocalDate sunday = today.minusDays(200);
+        when(repository.findFirstByBaseCurrencyAndRateDateLessThanEqualOrderByRateDateDesc(USD, sunday))
+                .thenReturn(Optional.of(row(sunday.minusDays(2), 0.93)));
+
+        Optional<RateHistoryService.DailyRates> rates = rateHistoryService.getRatesOn(sunday);
+
+        assertTrue(rates.isPresent());
+        assertEquals(sunday.minusDays(2), rates.get().getDate());
+        assertEquals(0.93, rates.get().getSnapshot().rate(USD, "EUR"), 1e-12);
+    }
+
+    private static ExchangeRateHistoryEntity row(LocalDate date, double eurRate) {
+        RateSnapshot snapshot = new RateSnapshot(USD, Map.of(USD, 1.0, "EUR", eurRate));
+        ExchangeRateHistoryEntity row = new ExchangeRateHistoryEntity(date, USD);
+        row.setCurrencyCodes(snapshot.getPackedCodes());
+        row.setPackedRates(snapshot.getPackedRates());
+        return row;
+    }
+
+    private static List<LocalDate> dates(List<RateHistoryService.DailyRates> days) {
+        return days.stream().map(RateHistoryService.DailyRates::getDate).collect(Collectors.toList());
+    }
+}
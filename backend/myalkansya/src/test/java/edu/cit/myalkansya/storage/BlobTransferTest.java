@@ -0,0 +1,215 @@
+package edu.cit.myalkansya.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BlobTransferTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+    private static final String ETAG = "\"abc123\"";
+    private static final Instant LAST_MODIFIED = Instant.ofEpochSecond(1_700_000_000L, 500_000_000L);
+
+    @TempDir
+    Path tempDir;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void withoutRangeTheWholeBlobIsSent() throws IOException {
+        BlobTransfer.send(memoryBlob(), null, ETAG, get(), response);
+
+        assertEquals(200, response.getStatus());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10, response.getContentLength());
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    @Test
+    void rangeOfACachedBlobIsSentAsPartialContent() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertPartial("bytes 2-5/10", "2345");
+    }
+
+    @Test
+    void rangeOfAStreamedBlobIsSentAsPartialContent() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=7-");
+
+        BlobTransfer.send(memoryBlob(), null, ETAG, request, response);
+
+        assertPartial("bytes 7-9/10", "789");
+    }
+
+    @Test
+    void rangeOfAFileBlobIsTransferredFromTheFile() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+
+        BlobTransfer.send(fileBlob(), null, ETAG, request, response);
+
+        assertPartial("bytes 7-9/10", "789");
+    }
+
+    @Test
+    void fileBlobIsHandedToSendfileWhenSupported() throws IOException {
+        StoredBlob blob = fileBlob();
+        MockHttpServletRequest request = get();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=1-4");
+
+        BlobTransfer.send(blob, null, ETAG, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(4, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(blob.getResource().getFile().toPath().toRealPath().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(1L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(5L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void rangeBeyondTheEndIsNotSatisfiable() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-20");
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void malformedRangeIsNotSatisfiable() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=five-six");
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertEquals(416, response.getStatus());
+    }
+
+    @Test
+    void multipleRangesGetTheWholeBlob() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,4-5");
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertWhole();
+    }
+
+    @Test
+    void ifRangeWithTheCurrentEtagKeepsTheRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertPartial("bytes 0-1/10", "01");
+    }
+
+    @Test
+    void ifRangeWithAnOldOrWeakEtagGetsTheWholeBlob() throws IOException {
+        for (String ifRange : new String[]{"\"old\"", "W/" + ETAG}) {
+            MockHttpServletResponse fullResponse = new MockHttpServletResponse();
+            MockHttpServletRequest request = get();
+            request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+            request.addHeader(HttpHeaders.IF_RANGE, ifRange);
+
+            BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, fullResponse);
+
+            assertEquals(200, fullResponse.getStatus(), ifRange);
+            assertArrayEquals(CONTENT, fullResponse.getContentAsByteArray(), ifRange);
+        }
+    }
+
+    @Test
+    void ifRangeWithTheLastModifiedDateKeepsTheRange() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED));
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertPartial("bytes 0-1/10", "01");
+    }
+
+    @Test
+    void ifRangeWithAnEarlierDateGetsTheWholeBlob() throws IOException {
+        MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, httpDate(LAST_MODIFIED.minusSeconds(60)));
+
+        BlobTransfer.send(memoryBlob(), CONTENT, ETAG, request, response);
+
+        assertWhole();
+    }
+
+    @Test
+    void headSendsHeadersWithoutABody() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/api/users/profile-pictures/a.jpg");
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-3");
+
+        BlobTransfer.send(fileBlob(), null, ETAG, request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(4, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    private void assertPartial(String contentRange, String body) {
+        assertEquals(206, response.getStatus());
+        assertEquals(contentRange, response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(body.length(), response.getContentLength());
+        assertEquals(body, new String(response.getContentAsByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    private void assertWhole() {
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(CONTENT, response.getContentAsByteArray());
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/users/profile-pictures/a.jpg");
+    }
+
+    private static StoredBlob memoryBlob() {
+        return new StoredBlob("a.jpg", new ByteArrayResource(CONTENT), CONTENT.length, LAST_MODIFIED);
+    }
+
+    private StoredBlob fileBlob() throws IOException {
+        Path file = Files.write(tempDir.resolve("a.jpg"), CONTENT);
+        return new StoredBlob("a.jpg", new FileSystemResource(file), CONTENT.length, LAST_MODIFIED);
+    }
+
+    private static String httpDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,94 @@
+package edu.cit.myalkansya.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalBlobStoreTest {
+
+    private static final byte[] CONTENT = "profile picture bytes".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private LocalBlobStore store;
+
+    @BeforeEach
+    void setUp() {
+        root = tempDir.resolve("blobs");
+        store = new LocalBlobStore(root.toString());
+    }
+
+    @Test
+    void contentKeyIsTheHashPlusExtension() {
+        String key = BlobStore.contentKeyOf(CONTENT, ".jpg");
+
+        assertTrue(key.matches("[0-9a-f]{64}\\.jpg"), key);
+        assertEquals(key.substring(0, 64), BlobStore.contentHashOf(key));
+        assertEquals(key, BlobStore.contentKeyOf(CONTENT.clone(), ".jpg"));
+    }
+
+    @Test
+    void storedFileIsFoundWithItsSize() throws IOException {
+        Files.createDirectories(root);
+        Files.write(root.resolve("profile_7_1700000000.jpg"), CONTENT);
+
+        StoredBlob blob = store.find("profile_7_1700000000.jpg").orElseThrow();
+        assertEquals("profile_7_1700000000.jpg", blob.getKey());
+        assertEquals(CONTENT.length, blob.getContentLength());
+        try (InputStream in = blob.getResource().getInputStream()) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void missingFileIsNotFound() throws IOException {
+        assertTrue(store.find("profile_7_1700000000.jpg").isEmpty());
+    }
+
+    @Test
+    void keysOutsideTheRootAreNotFound() throws IOException {
+        Files.createDirectories(root.resolve("nested"));
+        Files.write(root.resolve("nested/inner.jpg"), CONTENT);
+        Files.write(tempDir.resolve("secret.txt"), CONTENT);
+
+        for (String key : new String[]{"../secret.txt", "nested/../../secret.txt", "nested/inner.jpg",
+                tempDir.resolve("secret.txt").toString(), "", null}) {
+            assertTrue(store.find(key).isEmpty(), "found " + key);
+        }
+    }
+
+    @Test
+    void hiddenFilesAreNotFound() throws IOException {
+        Files.createDirectories(root);
+        Files.write(root.resolve(".upload-123.tmp"), CONTENT);
+
+        assertTrue(store.find(".upload-123.tmp").isEmpty());
+        assertTrue(store.find(".").isEmpty());
+        assertTrue(store.find("..").isEmpty());
+    }
+
+    @Test
+    void directoriesAreNotBlobs() throws IOException {
+        Files.createDirectories(root.resolve("folder"));
+
+        assertTrue(store.find("folder").isEmpty());
+    }
+
+    @Test
+    void legacyKeysHaveNoContentHash() {
+        assertNull(BlobStore.contentHashOf("profile_7_1700000000.jpg"));
+    }
+}